@@ -0,0 +1,19 @@
+package app.weather.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+// Recorded OpenWeather response bodies bundled under src/jmh/resources/fixtures
+final class Fixtures {
+    private Fixtures() { }
+
+    static byte[] read(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IllegalStateException("Missing fixture " + name);
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package app.weather.bench;
+
+import app.weather.ForecastRow;
+import app.weather.WeatherJsonParser;
+import app.weather.model.ForecastEntry;
+import app.weather.model.ForecastSeries;
+import app.weather.model.Units;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Building 40-point forecasts and preparing table rows, as ForecastView does per update
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ForecastBenchmark {
+    private final ZoneId zone = ZoneId.of("Europe/London");
+    private ForecastSeries series;
+    private ForecastRow[] rows;
+
+    @Setup
+    public void setup() throws IOException {
+        series = new WeatherJsonParser().parseForecast(Fixtures.read("forecast.json"), 40);
+        rows = new ForecastRow[series.size()];
+        for (int i = 0; i < rows.length; i++) rows[i] = ForecastRow.of(series, i, Units.IMPERIAL, zone);
+    }
+
+    @Benchmark
+    public List<ForecastEntry> createEntries() {
+        List<ForecastEntry> out = new ArrayList<>(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            out.add(new ForecastEntry(series.epochAt(i), series.tempAt(i), series.windAt(i), series.conditionAt(i), series.iconAt(i)));
+        }
+        return out;
+    }
+
+    @Benchmark
+    public ForecastSeries createSeries() {
+        ForecastSeries.Builder b = new ForecastSeries.Builder(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            b.add(series.epochAt(i), series.tempAt(i), series.windAt(i), series.conditionAt(i), series.iconAt(i));
+        }
+        return b.build();
+    }
+
+    @Benchmark
+    public void formatRows(Blackhole bh) {
+        for (int i = 0; i < series.size(); i++) {
+            bh.consume(ForecastRow.of(series, i, Units.IMPERIAL, zone));
+        }
+    }
+
+    // A refresh with unchanged data (cache hit, 304), updating the rows already on screen
+    @Benchmark
+    public boolean updateRows() {
+        boolean changed = false;
+        for (int i = 0; i < rows.length; i++) changed |= rows[i].update(series, i, Units.IMPERIAL, zone);
+        return changed;
+    }
+}
@@ -0,0 +1,83 @@
+package app.weather.bench;
+
+import app.weather.HistoryManager;
+import javafx.collections.ObservableList;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// HistoryManager cold load and per-search add against history logs of different sizes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HistoryBenchmark {
+    private static final int DISTINCT_CITIES = 5_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int entries;
+
+    private Path dir;
+    private Path template;
+    private File current;
+    private int copies;
+    private HistoryManager loaded;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void writeLog() throws IOException {
+        dir = Files.createTempDirectory("history-bench");
+        template = dir.resolve("template.txt");
+        try (BufferedWriter w = Files.newBufferedWriter(template, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < entries; i++) {
+                w.write("City" + (i % DISTINCT_CITIES) + " @ 2025-01-" + String.format("%02d", 1 + i % 28) + " 10:00");
+                w.newLine();
+            }
+        }
+        loaded = manager(copyTemplate());
+        loaded.load().join();
+    }
+
+    // Loading compacts the log, so every load gets its own fresh copy of it
+    @Setup(Level.Invocation)
+    public void freshCopy() throws IOException {
+        current = copyTemplate();
+    }
+
+    @Benchmark
+    public ObservableList<String> load() {
+        HistoryManager m = manager(current);
+        m.load().join();
+        return m.getAll();
+    }
+
+    // The whole write, not just the hand-off the FX thread pays for
+    @Benchmark
+    public void add() {
+        loaded.add("City" + (next++ % DISTINCT_CITIES)).join();
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private File copyTemplate() throws IOException {
+        Path copy = dir.resolve("history-" + (copies++) + ".txt");
+        Files.copy(template, copy);
+        return copy.toFile();
+    }
+
+    private static HistoryManager manager(File file) {
+        return new HistoryManager(file, 200, Runnable::run); // no FX thread here
+    }
+}
@@ -0,0 +1,27 @@
+package app.weather.bench;
+
+import app.weather.IconCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Icon code and condition-to-icon lookups used by the fallback path. Decoding the PNGs
+// needs a running JavaFX toolkit, so it is not covered here.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IconLookupBenchmark {
+    private static final String[] CODES = {"01d", "02n", "04d", "10n", "13d", "50d", "99x"};
+    private static final String[] CONDITIONS = {"clear sky", "broken clouds", "light rain", "thunderstorm", "snow", "mist", "tornado"};
+    private int i;
+
+    @Benchmark
+    public String iconMap() {
+        return IconCache.ICON_MAP.get(CODES[i++ % CODES.length]);
+    }
+
+    @Benchmark
+    public String fallbackPath() {
+        return IconCache.localIconPath(CONDITIONS[i++ % CONDITIONS.length]);
+    }
+}
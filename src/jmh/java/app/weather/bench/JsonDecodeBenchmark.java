@@ -0,0 +1,40 @@
+package app.weather.bench;
+
+import app.weather.WeatherJsonParser;
+import app.weather.model.ForecastSeries;
+import app.weather.model.WeatherData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Decoding of /weather and /forecast bodies, as WeatherService does after each fetch
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonDecodeBenchmark {
+    private final WeatherJsonParser parser = new WeatherJsonParser();
+    private byte[] weather;
+    private byte[] forecast;
+
+    @Setup
+    public void setup() {
+        weather = Fixtures.read("weather.json");
+        forecast = Fixtures.read("forecast.json");
+    }
+
+    @Benchmark
+    public WeatherData current() throws IOException {
+        return parser.parseWeather("London", weather);
+    }
+
+    @Benchmark
+    public ForecastSeries forecast8() throws IOException {
+        return parser.parseForecast(forecast, 8);
+    }
+
+    @Benchmark
+    public ForecastSeries forecast40() throws IOException {
+        return parser.parseForecast(forecast, 40);
+    }
+}
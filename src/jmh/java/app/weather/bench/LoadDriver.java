@@ -0,0 +1,106 @@
+package app.weather.bench;
+
+import app.weather.LatencyHistogram;
+import app.weather.CircuitOpenException;
+import app.weather.WeatherService;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless load test of the WeatherService fetch pipeline (HTTP, decode, cache bookkeeping).
+ * Runs {@code --clients} virtual-thread clients in a closed loop against a local {@link StubServer}
+ * (or {@code --base-url}) and reports requests/sec and tail latency. Caching and rate limiting are
+ * switched off so every call goes over the wire.
+ *
+ * <p>{@code mvn -Pbench test-compile exec:exec@load -Dload.args="--clients 200 --duration 30"}
+ */
+public final class LoadDriver {
+
+    public static void main(String[] args) throws Exception {
+        Options opts = new Options(args);
+        int clients = opts.getInt("clients", 100);
+        long warmupSeconds = opts.getLong("warmup", 5);
+        long durationSeconds = opts.getLong("duration", 30);
+        int cities = Math.max(1, opts.getInt("cities", 1000));
+        String endpoint = opts.get("endpoint", "all"); // all | weather | forecast
+        String baseUrl = opts.get("base-url", null);
+
+        StubServer stub = baseUrl == null
+                ? new StubServer(0, opts.getLong("latency-ms", 20), opts.getLong("jitter-ms", 10), opts.getDouble("error-rate", 0))
+                : null;
+        try {
+            Properties props = new Properties();
+            props.setProperty("OPENWEATHER_BASE_URL", stub != null ? stub.getBaseUrl() : baseUrl);
+            props.setProperty("OPENWEATHER_API_KEY", opts.get("api-key", "stub"));
+            props.setProperty("CACHE_TTL_SECONDS", "0");
+            props.setProperty("RATE_LIMIT_PER_MINUTE", "0");
+            props.setProperty("HTTP_VERSION", opts.get("http-version", "HTTP_2"));
+            props.setProperty("HTTP_GZIP", opts.get("gzip", "true"));
+            props.setProperty("HTTP_MAX_RETRIES", opts.get("retries", "2"));
+            props.setProperty("BREAKER_OPEN_SECONDS", opts.get("breaker-open-seconds", "30"));
+            props.setProperty("CITY_INDEX_FILE", ""); // keep stub city ids out of the user's index
+            props.setProperty("OBSERVATION_DIR", ""); // and stub observations out of the user's history
+            WeatherService service = new WeatherService(props);
+
+            LatencyHistogram latency = new LatencyHistogram();
+            AtomicLong errors = new AtomicLong();
+            AtomicLong rejected = new AtomicLong();
+            long start = System.nanoTime();
+            long measureFrom = start + warmupSeconds * 1_000_000_000L;
+            long end = measureFrom + durationSeconds * 1_000_000_000L;
+
+            System.out.printf("Running %d clients for %ds (+%ds warm-up) against %s%n",
+                    clients, durationSeconds, warmupSeconds, props.getProperty("OPENWEATHER_BASE_URL"));
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < clients; c++) {
+                    pool.execute(() -> runClient(service, endpoint, cities, measureFrom, end, latency, errors, rejected));
+                }
+            }
+
+            report(latency, errors.get(), rejected.get(), durationSeconds);
+        } finally {
+            if (stub != null) stub.close();
+        }
+    }
+
+    private static void runClient(WeatherService service, String endpoint, int cities, long measureFrom, long end,
+                                  LatencyHistogram latency, AtomicLong errors, AtomicLong rejected) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            String city = "City " + rnd.nextInt(cities);
+            boolean forecast = endpoint.equals("forecast") || (endpoint.equals("all") && rnd.nextBoolean());
+            boolean ok = true;
+            try {
+                if (forecast) service.fetchForecast(city, 40);
+                else service.fetchWeather(city);
+            } catch (CircuitOpenException ex) {
+                // Failed fast without a request; back off like a real client instead of spinning
+                if (now >= measureFrom) rejected.incrementAndGet();
+                LockSupport.parkNanos(50_000_000L);
+                continue;
+            } catch (Exception ex) {
+                ok = false;
+            }
+            if (now < measureFrom) continue;
+            if (ok) latency.record(System.nanoTime() - now);
+            else errors.incrementAndGet();
+        }
+    }
+
+    private static void report(LatencyHistogram latency, long errors, long rejected, long durationSeconds) {
+        long ok = latency.getCount();
+        long total = ok + errors;
+        System.out.printf("requests   %d (%d errors, %.2f%%)%n", total, errors, total == 0 ? 0 : errors * 100.0 / total);
+        if (rejected > 0) System.out.printf("rejected   %d calls failed fast by the circuit breaker%n", rejected);
+        System.out.printf("throughput %.1f req/s%n", total / (double) Math.max(1, durationSeconds));
+        System.out.printf("latency    p50 %.2f ms  p90 %.2f ms  p99 %.2f ms  p99.9 %.2f ms  max %.2f ms%n",
+                latency.percentile(50) / 1e6, latency.percentile(90) / 1e6, latency.percentile(99) / 1e6,
+                latency.percentile(99.9) / 1e6, latency.getMax() / 1e6);
+    }
+}
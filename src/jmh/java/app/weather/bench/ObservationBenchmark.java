@@ -0,0 +1,67 @@
+package app.weather.bench;
+
+import app.weather.ObservationStore;
+import app.weather.model.ObservationSeries;
+import app.weather.model.WeatherData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Range query for one city over an observation store holding `days` days of 10-minute observations for `cities` cities
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ObservationBenchmark {
+    private static final int PER_DAY = 144;
+    private static final long START = 1_704_067_200L; // 2024-01-01T00:00Z
+
+    @Param({"10", "100"})
+    public int cities;
+
+    @Param({"90"})
+    public int days;
+
+    private Path dir;
+    private ObservationStore store;
+    private long end;
+
+    @Setup(Level.Trial)
+    public void fill() throws IOException {
+        dir = Files.createTempDirectory("observation-bench");
+        store = new ObservationStore(dir, 0);
+        long t = START;
+        for (int d = 0; d < days; d++) {
+            for (int i = 0; i < PER_DAY; i++, t += 600) {
+                for (int c = 1; c <= cities; c++) {
+                    store.append(c, new WeatherData("City" + c, 10 + c % 7 + Math.sin(t / 7200.0), 9, 70, 3.5,
+                            "clear sky", "01d", t, 800));
+                }
+            }
+            store.flush();
+        }
+        end = t;
+    }
+
+    @Benchmark
+    public ObservationSeries lastWeek() throws IOException {
+        return store.query(cities / 2, end - 7 * 86400L, end);
+    }
+
+    @Benchmark
+    public ObservationSeries allDays() throws IOException {
+        return store.query(cities / 2, START, end);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
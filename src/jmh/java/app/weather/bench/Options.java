@@ -0,0 +1,34 @@
+package app.weather.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// "--name value" command line options for the stub server and load driver
+final class Options {
+    private final Map<String, String> values = new HashMap<>();
+
+    Options(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            String name = args[i].substring(2);
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for --" + name);
+            values.put(name, args[++i]);
+        }
+    }
+
+    String get(String name, String def) {
+        return values.getOrDefault(name, def);
+    }
+
+    int getInt(String name, int def) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : def;
+    }
+
+    long getLong(String name, long def) {
+        return values.containsKey(name) ? Long.parseLong(values.get(name)) : def;
+    }
+
+    double getDouble(String name, double def) {
+        return values.containsKey(name) ? Double.parseDouble(values.get(name)) : def;
+    }
+}
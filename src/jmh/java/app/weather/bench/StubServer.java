@@ -0,0 +1,206 @@
+package app.weather.bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the OpenWeather API. Serves the bundled fixtures on {@code /data/2.5/weather},
+ * {@code /data/2.5/group} and {@code /data/2.5/forecast} with an injected delay of
+ * {@code latency ± jitter} ms, and fails a fraction of requests with HTTP 500. Cities starting
+ * with "unknown" get the API's 404 body. Each city name gets its own stable id, which
+ * {@code id=} lookups and group calls echo back. With {@code observationSeconds > 0} the weather
+ * payload's observation time ("dt") advances on that period, as the real API's does. Responses
+ * carry an ETag and a matching {@code If-None-Match} gets 304 Not Modified.
+ * Bodies are gzipped for clients that send {@code Accept-Encoding: gzip}, as the real API does.
+ * Each request is handled on its own virtual thread, so slow responses do not limit throughput.
+ *
+ * <p>Run standalone and set {@code OPENWEATHER_BASE_URL=http://localhost:8089} to point the app at it:
+ * {@code mvn -Pbench test-compile exec:exec@stub -Dstub.args="--port 8089 --latency-ms 50"}
+ */
+public final class StubServer implements AutoCloseable {
+    private static final byte[] NOT_FOUND = "{\"cod\":\"404\",\"message\":\"city not found\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SERVER_ERROR = "{\"cod\":500,\"message\":\"injected error\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final String FIXTURE_ID = "\"id\":2643743";
+    private static final String FIXTURE_DT = "\"dt\":1760700000";
+
+    private final byte[] forecast = Fixtures.read("forecast.json");
+    private final byte[] forecastGzip = gzip(forecast);
+    // The weather fixture around its city id, so each response can carry the requested city's id
+    private final String weatherHead;
+    private final String weatherTail;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final long observationSeconds;
+    private final AtomicLong notModified = new AtomicLong();
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * @param port      0 picks a free port
+     * @param errorRate fraction of requests answered with HTTP 500, 0..1
+     */
+    public StubServer(int port, long latencyMillis, long jitterMillis, double errorRate) throws IOException {
+        this(port, latencyMillis, jitterMillis, errorRate, 0);
+    }
+
+    public StubServer(int port, long latencyMillis, long jitterMillis, double errorRate, long observationSeconds) throws IOException {
+        this.observationSeconds = observationSeconds;
+        this.latencyMillis = Math.max(0, latencyMillis);
+        this.jitterMillis = Math.max(0, jitterMillis);
+        this.errorRate = errorRate;
+        String weather = new String(Fixtures.read("weather.json"), StandardCharsets.UTF_8);
+        int at = weather.lastIndexOf(FIXTURE_ID);
+        weatherHead = weather.substring(0, at) + "\"id\":";
+        weatherTail = weather.substring(at + FIXTURE_ID.length());
+        // Headers and body are written separately; without TCP_NODELAY, Nagle plus delayed ACKs add ~40 ms per response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.createContext("/data/2.5/weather", ex -> respond(ex, () -> weather(cityId(ex.getRequestURI().getRawQuery()))));
+        server.createContext("/data/2.5/group", ex -> respond(ex, () -> group(ex.getRequestURI().getRawQuery())));
+        server.createContext("/data/2.5/forecast", ex -> respond(ex, () -> forecast));
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public long getServed() { return served.get(); }
+    public long getFailed() { return failed.get(); }
+    public long getNotModified() { return notModified.get(); }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    private void respond(HttpExchange ex, Body body) throws IOException {
+        try (ex) {
+            long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1) : 0);
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            String query = ex.getRequestURI().getRawQuery();
+            if (query != null && query.contains("q=unknown")) {
+                send(ex, 404, NOT_FOUND);
+            } else if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                failed.incrementAndGet();
+                send(ex, 500, SERVER_ERROR);
+            } else {
+                byte[] bytes = body.get();
+                String etag = "\"" + Integer.toHexString(Arrays.hashCode(bytes)) + "\"";
+                ex.getResponseHeaders().set("ETag", etag);
+                if (etag.equals(ex.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModified.incrementAndGet();
+                    ex.sendResponseHeaders(304, -1);
+                } else if (acceptsGzip(ex)) {
+                    ex.getResponseHeaders().set("Content-Encoding", "gzip");
+                    send(ex, 200, bytes == forecast ? forecastGzip : gzip(bytes));
+                } else {
+                    send(ex, 200, bytes);
+                }
+            }
+            served.incrementAndGet();
+        }
+    }
+
+    private interface Body {
+        byte[] get();
+    }
+
+    private byte[] weather(long id) {
+        return observed(weatherHead + id + weatherTail).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String observed(String json) {
+        if (observationSeconds <= 0) return json;
+        long now = System.currentTimeMillis() / 1000;
+        return json.replace(FIXTURE_DT, "\"dt\":" + (now - now % observationSeconds));
+    }
+
+    // {"cnt":n,"list":[...]} with one weather object per requested id
+    private byte[] group(String query) {
+        String ids = param(query, "id");
+        StringBuilder out = new StringBuilder("{\"cnt\":");
+        String[] list = ids == null || ids.isEmpty() ? new String[0] : ids.split(",");
+        out.append(list.length).append(",\"list\":[");
+        for (int i = 0; i < list.length; i++) {
+            if (i > 0) out.append(',');
+            out.append(weatherHead).append(Long.parseLong(list[i].trim())).append(weatherTail);
+        }
+        return observed(out.append("]}").toString()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // id=<n> is echoed; q=<name> maps to a stable positive id per normalized name
+    private static long cityId(String query) {
+        String id = param(query, "id");
+        if (id != null) return Long.parseLong(id);
+        String q = param(query, "q");
+        return q == null ? 2643743 : 1_000_000L + (q.trim().toLowerCase(Locale.ROOT).hashCode() & 0x3fffffff);
+    }
+
+    private static String param(String query, String name) {
+        if (query == null) return null;
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) return URLDecoder.decode(pair.substring(name.length() + 1), StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    private static boolean acceptsGzip(HttpExchange ex) {
+        String accept = ex.getRequestHeaders().getFirst("Accept-Encoding");
+        return accept != null && accept.contains("gzip");
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void send(HttpExchange ex, int status, byte[] body) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options opts = new Options(args);
+        StubServer stub = new StubServer(opts.getInt("port", 8089), opts.getLong("latency-ms", 50),
+                opts.getLong("jitter-ms", 20), opts.getDouble("error-rate", 0), opts.getLong("observation-seconds", 600));
+        System.out.println("OpenWeather stub listening on " + stub.getBaseUrl() + " (Ctrl+C to stop)");
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,23 @@
+package app.weather;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Two daemon threads for blocking disk work (state and index files, icons, observation history), so a
+// slow disk never holds up AppScheduler's timers; stores that rewrite a file keep their own write lock
+public final class AppIo {
+    private static final int THREADS = 2;
+    private static final AtomicInteger COUNT = new AtomicInteger();
+    private static final ExecutorService SHARED = Executors.newFixedThreadPool(THREADS, r -> {
+        Thread t = new Thread(r, "app-io-" + COUNT.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private AppIo() { }
+
+    public static ExecutorService shared() {
+        return SHARED;
+    }
+}
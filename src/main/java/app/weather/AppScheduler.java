@@ -0,0 +1,19 @@
+package app.weather;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+// One daemon scheduler thread shared by all timeouts and delayed tasks in the app; blocking work belongs on AppIo
+public final class AppScheduler {
+    private static final ScheduledExecutorService SHARED = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "app-scheduler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private AppScheduler() { }
+
+    public static ScheduledExecutorService shared() {
+        return SHARED;
+    }
+}
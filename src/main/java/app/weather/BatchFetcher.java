@@ -0,0 +1,144 @@
+package app.weather;
+
+import app.weather.model.WeatherData;
+import app.weather.model.WeatherSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Fetches current conditions and forecast for many cities with at most {@code concurrency}
+ * cities in flight. API calls are paced by the WeatherService rate limiter; each result is
+ * handed to the caller as soon as it completes, in completion order. Current conditions for
+ * cities whose id is already known come from group calls of up to 20 cities each, so a
+ * refresh of resolved cities costs one call per 20 cities plus the forecast calls.
+ */
+public class BatchFetcher {
+
+    public static class CityResult {
+        private final String city;
+        private final WeatherSnapshot snapshot;
+        private final Throwable error;
+        private final long latencyMillis;
+
+        CityResult(String city, WeatherSnapshot snapshot, Throwable error, long latencyMillis) {
+            this.city = city;
+            this.snapshot = snapshot;
+            this.error = error;
+            this.latencyMillis = latencyMillis;
+        }
+
+        public String getCity() { return city; }
+        public WeatherSnapshot getSnapshot() { return snapshot; }
+        public Throwable getError() { return error; }
+        public long getLatencyMillis() { return latencyMillis; }
+        public boolean isSuccess() { return error == null; }
+    }
+
+    public static class BatchReport {
+        private final int succeeded;
+        private final int failed;
+        private final long elapsedMillis;
+        private final long[] sortedLatencies;
+
+        BatchReport(int succeeded, int failed, long elapsedMillis, long[] latencies) {
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.elapsedMillis = elapsedMillis;
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(this.sortedLatencies);
+        }
+
+        public int getSucceeded() { return succeeded; }
+        public int getFailed() { return failed; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        public double getCitiesPerSecond() {
+            return elapsedMillis == 0 ? 0 : (succeeded + failed) * 1000.0 / elapsedMillis;
+        }
+
+        public long getLatencyPercentile(double p) {
+            if (sortedLatencies.length == 0) return 0;
+            int idx = (int) Math.ceil(p / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(idx, sortedLatencies.length - 1))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d ok, %d failed in %d ms (%.2f cities/s); latency p50=%d ms p95=%d ms max=%d ms",
+                    succeeded, failed, elapsedMillis, getCitiesPerSecond(),
+                    getLatencyPercentile(50), getLatencyPercentile(95), getLatencyPercentile(100));
+        }
+    }
+
+    private final WeatherService service;
+    private final int concurrency;
+
+    public BatchFetcher(WeatherService service, int concurrency) {
+        if (concurrency <= 0) throw new IllegalArgumentException("concurrency must be positive");
+        this.service = service;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Fetches every city and blocks until all have completed. {@code onResult} is called from
+     * HTTP client threads, possibly concurrently, so it must be thread-safe.
+     */
+    public BatchReport fetchAll(List<String> cities, int points, Consumer<CityResult> onResult) throws InterruptedException {
+        Semaphore slots = new Semaphore(concurrency);
+        List<CompletableFuture<CityResult>> pending = new ArrayList<>(cities.size());
+        long started = System.nanoTime();
+
+        // Each group call takes one slot; a city missing from its group's answer is fetched on its own
+        Map<String, CompletableFuture<WeatherData>> grouped = new HashMap<>();
+        for (List<String> group : service.planGroups(cities)) {
+            slots.acquire();
+            CompletableFuture<Map<String, WeatherData>> call = service.fetchWeatherGroupAsync(group);
+            call.whenComplete((r, err) -> slots.release());
+            for (String city : group) {
+                grouped.put(city, call.thenCompose(found -> {
+                    WeatherData current = found.get(city);
+                    return current != null ? CompletableFuture.completedFuture(current) : service.fetchWeatherAsync(city);
+                }));
+            }
+        }
+
+        for (String city : cities) {
+            slots.acquire();
+            long cityStart = System.nanoTime();
+            CompletableFuture<WeatherData> current = grouped.containsKey(city) ? grouped.get(city) : service.fetchWeatherAsync(city);
+            // points <= 0 fetches current conditions only and skips the forecast call
+            CompletableFuture<WeatherSnapshot> fetch = points > 0
+                    ? current.thenCombine(service.fetchForecastAsync(city, points), (c, f) -> new WeatherSnapshot(city, c, f))
+                    : current.thenApply(c -> new WeatherSnapshot(city, c, List.of()));
+            CompletableFuture<CityResult> result = fetch
+                    .handle((snapshot, err) -> new CityResult(city, snapshot, unwrap(err),
+                            (System.nanoTime() - cityStart) / 1_000_000));
+            pending.add(result.whenComplete((r, ignored) -> {
+                slots.release();
+                onResult.accept(r);
+            }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+
+        int ok = 0, failed = 0;
+        long[] latencies = new long[pending.size()];
+        for (int i = 0; i < pending.size(); i++) {
+            CityResult r = pending.get(i).join();
+            if (r.isSuccess()) ok++; else failed++;
+            latencies[i] = r.getLatencyMillis();
+        }
+        return new BatchReport(ok, failed, (System.nanoTime() - started) / 1_000_000, latencies);
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        return (t instanceof CompletionException && t.getCause() != null) ? t.getCause() : t;
+    }
+}
@@ -0,0 +1,115 @@
+package app.weather;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker for upstream API calls. While CLOSED it tracks the outcome of the last
+ * {@code WINDOW} calls and opens when too many of them failed or were slow. While OPEN every
+ * call is rejected immediately with a {@link CircuitOpenException}. After the open period it
+ * goes HALF_OPEN and lets a few probe calls through: if they all succeed it closes again,
+ * and any failure re-opens it.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final int WINDOW = 20;
+    private static final int MIN_CALLS = 5;
+    private static final int HALF_OPEN_PROBES = 2;
+
+    private final double failureRate;
+    private final double slowCallRate;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    // Ring buffer of recent outcomes while closed
+    private final boolean[] failed = new boolean[WINDOW];
+    private final boolean[] slow = new boolean[WINDOW];
+    private int next = 0;
+    private int recorded = 0;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesInFlight = 0;
+    private int probesSucceeded = 0;
+
+    /**
+     * @param failureRate  fraction of failed calls in the window that opens the circuit, 0..1
+     * @param slowCallRate fraction of calls slower than {@code slowCallMillis} that opens it, 0..1
+     */
+    public CircuitBreaker(double failureRate, double slowCallRate, long slowCallMillis, long openMillis) {
+        this.failureRate = failureRate;
+        this.slowCallRate = slowCallRate;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /** Admits a call or fails fast; every admitted call must end in exactly one onXxx callback. */
+    public synchronized void acquire() throws CircuitOpenException {
+        if (state == State.OPEN) {
+            long waited = System.nanoTime() - openedAt;
+            if (waited < openNanos) throw new CircuitOpenException(TimeUnit.NANOSECONDS.toMillis(openNanos - waited));
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight + probesSucceeded >= HALF_OPEN_PROBES) throw new CircuitOpenException(0);
+            probesInFlight++;
+        }
+    }
+
+    public synchronized void onSuccess(long elapsedNanos) {
+        if (state == State.HALF_OPEN) {
+            probesInFlight--;
+            if (++probesSucceeded >= HALF_OPEN_PROBES) close();
+            return;
+        }
+        record(false, elapsedNanos >= slowCallNanos);
+    }
+
+    public synchronized void onFailure(long elapsedNanos) {
+        if (state == State.HALF_OPEN) {
+            probesInFlight--;
+            open();
+            return;
+        }
+        record(true, elapsedNanos >= slowCallNanos);
+    }
+
+    /** The call was cancelled by the caller; it says nothing about the upstream. */
+    public synchronized void onCancelled() {
+        if (state == State.HALF_OPEN) probesInFlight--;
+    }
+
+    public synchronized State getState() {
+        // Report an expired open period as half-open even before the next call arrives
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) return State.HALF_OPEN;
+        return state;
+    }
+
+    private void record(boolean isFailure, boolean isSlow) {
+        if (state != State.CLOSED) return; // a late result from before the circuit opened
+        failed[next] = isFailure;
+        slow[next] = isSlow;
+        next = (next + 1) % WINDOW;
+        if (recorded < WINDOW) recorded++;
+        if (recorded < MIN_CALLS) return;
+        int failures = 0, slowCalls = 0;
+        for (int i = 0; i < recorded; i++) {
+            if (failed[i]) failures++;
+            if (slow[i]) slowCalls++;
+        }
+        if (failures >= failureRate * recorded || slowCalls >= slowCallRate * recorded) open();
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+    }
+}
@@ -0,0 +1,24 @@
+package app.weather;
+
+import java.io.IOException;
+
+// Thrown without touching the network while the circuit breaker is open
+public class CircuitOpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(long retryAfterMillis) {
+        super("Weather service unavailable; calls are paused for " + Math.max(1, (retryAfterMillis + 999) / 1000) + " s");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /** How long until the breaker lets a probe call through. */
+    public long getRetryAfterMillis() { return retryAfterMillis; }
+
+    // Rejections are expected and frequent while open; skip the stack walk to keep them cheap
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,145 @@
+package app.weather;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.geometry.Bounds;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.stage.Popup;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Type-ahead suggestions under the city field. Input is debounced, lookups run on an
+ * I/O thread, and cities from the search history (most searched first) are listed
+ * before matches from the {@link CityNameIndex}. The index is opened on the first keystroke,
+ * so it never adds to startup. Up/Down move through the list, Enter picks, Escape closes.
+ */
+public class CityAutocomplete {
+    private static final int MAX_SUGGESTIONS = 8;
+
+    private final TextField field;
+    private final HistoryManager history;
+    private final Consumer<String> onPick;
+    private final Popup popup = new Popup();
+    private final ListView<String> list = new ListView<>();
+    private final PauseTransition debounce = new PauseTransition(Duration.millis(150));
+    private CompletableFuture<CityNameIndex> index;
+    // FX thread only: lets a lookup that finishes after newer input be dropped
+    private int generation = 0;
+    private boolean picking = false;
+
+    public CityAutocomplete(TextField field, HistoryManager history, Consumer<String> onPick) {
+        this.field = field;
+        this.history = history;
+        this.onPick = onPick;
+        list.setFocusTraversable(false);
+        list.setPrefHeight(MAX_SUGGESTIONS * 24 + 4);
+        list.setOnMouseClicked(e -> pick(list.getSelectionModel().getSelectedItem()));
+        popup.getContent().add(list);
+        popup.setAutoHide(true);
+        debounce.setOnFinished(e -> suggest(field.getText()));
+        field.textProperty().addListener((obs, was, now) -> {
+            if (picking) return;
+            generation++;
+            debounce.playFromStart();
+        });
+        field.addEventFilter(KeyEvent.KEY_PRESSED, this::onKey);
+    }
+
+    private void onKey(KeyEvent e) {
+        if (!popup.isShowing()) return;
+        switch (e.getCode()) {
+            case DOWN, UP -> {
+                int size = list.getItems().size();
+                int at = list.getSelectionModel().getSelectedIndex();
+                int next = e.getCode() == KeyCode.DOWN ? Math.min(size - 1, at + 1) : Math.max(0, at - 1);
+                list.getSelectionModel().select(next);
+                list.scrollTo(next);
+                e.consume();
+            }
+            case ENTER -> {
+                String selected = list.getSelectionModel().getSelectedItem();
+                if (selected != null) {
+                    pick(selected);
+                    e.consume();
+                } else {
+                    popup.hide();
+                }
+            }
+            case ESCAPE -> {
+                popup.hide();
+                e.consume();
+            }
+            default -> { }
+        }
+    }
+
+    private void suggest(String text) {
+        String prefix = text.trim();
+        if (prefix.length() < 2) {
+            popup.hide();
+            return;
+        }
+        if (index == null) {
+            index = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return CityNameIndex.openDefault();
+                } catch (Exception ex) {
+                    return null; // no index: suggest from history only
+                }
+            }, AppIo.shared());
+        }
+        int requested = generation;
+        index.thenApplyAsync(idx -> candidates(idx, prefix), AppIo.shared())
+                .thenAccept(found -> Platform.runLater(() -> {
+                    if (requested == generation) show(found);
+                }));
+    }
+
+    private List<String> candidates(CityNameIndex idx, String prefix) {
+        List<String> out = new ArrayList<>(history.matching(prefix, MAX_SUGGESTIONS));
+        if (idx != null && out.size() < MAX_SUGGESTIONS) {
+            for (String name : idx.lookup(prefix, MAX_SUGGESTIONS)) {
+                if (out.size() == MAX_SUGGESTIONS) break;
+                if (out.stream().noneMatch(name::equalsIgnoreCase)) out.add(name);
+            }
+        }
+        return out;
+    }
+
+    private void show(List<String> found) {
+        if (found.isEmpty() || !field.isFocused()) {
+            popup.hide();
+            return;
+        }
+        list.getItems().setAll(found);
+        list.getSelectionModel().clearSelection();
+        list.setPrefWidth(Math.max(field.getWidth(), 220));
+        if (!popup.isShowing()) {
+            Bounds b = field.localToScreen(field.getBoundsInLocal());
+            if (b == null) return;
+            popup.show(field, b.getMinX(), b.getMaxY());
+        }
+    }
+
+    private void pick(String city) {
+        if (city == null) return;
+        popup.hide();
+        picking = true;
+        try {
+            field.setText(city);
+            field.positionCaret(city.length());
+        } finally {
+            picking = false;
+        }
+        generation++;
+        onPick.accept(city);
+    }
+}
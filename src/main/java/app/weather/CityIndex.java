@@ -0,0 +1,119 @@
+package app.weather;
+
+import app.weather.model.CityLocation;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent city name → OpenWeather id/coordinates map. A name is resolved by the first
+ * successful by-name lookup and every later request uses the id, so the API does not geocode
+ * the same name again and refreshes can be batched through the multi-city group endpoint.
+ * Ids never change, so entries do not expire; the least recently used are dropped past the cap.
+ */
+public class CityIndex {
+    private static final int MAGIC = 0x57434931; // "WCI1"
+
+    private final File file;
+    private final int maxEntries;
+    // Keyed by normalized name, in access order
+    private final LinkedHashMap<String, CityLocation> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private boolean loaded = false;
+    private boolean dirty = false;
+    private boolean writeQueued = false;
+    // Held while writing, so lookups never wait on the disk
+    private final Object writeLock = new Object();
+
+    /** @param file where entries persist, or null to keep them in memory only */
+    public CityIndex(File file, int maxEntries) {
+        this.file = file;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    public synchronized CityLocation get(String city) {
+        load();
+        return entries.get(WeatherService.normalize(city));
+    }
+
+    public synchronized void put(String city, CityLocation location) {
+        load();
+        CityLocation old = entries.put(WeatherService.normalize(city), location);
+        if (old != null && old.getId() == location.getId()) return;
+        while (entries.size() > maxEntries) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+        dirty = true;
+        // Many cities resolve at once on a batch refresh; they share one rewrite on an I/O thread
+        if (file != null && !writeQueued) {
+            writeQueued = true;
+            AppIo.shared().execute(this::flush);
+        }
+    }
+
+    public synchronized int size() {
+        load();
+        return entries.size();
+    }
+
+    /** Writes pending changes now; short-lived tools call this before exiting. */
+    public void flush() {
+        // The copy is taken under writeLock, so an older copy can never be written over a newer one
+        synchronized (writeLock) {
+            List<Map.Entry<String, CityLocation>> copy;
+            synchronized (this) {
+                writeQueued = false;
+                if (!dirty || file == null) return;
+                dirty = false;
+                // Map.entry copies: the map's own entries are updated in place by put()
+                copy = new ArrayList<>(entries.size());
+                for (Map.Entry<String, CityLocation> e : entries.entrySet()) copy.add(Map.entry(e.getKey(), e.getValue()));
+            }
+            write(copy);
+        }
+    }
+
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+        if (file == null || !file.isFile()) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                entries.put(key, new CityLocation(in.readLong(), in.readUTF(), in.readDouble(), in.readDouble()));
+            }
+        } catch (IOException ignored) {
+            // A truncated or corrupt file only costs a by-name lookup per city; keep what was read
+        }
+    }
+
+    private void write(List<Map.Entry<String, CityLocation>> snapshot) {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, CityLocation> e : snapshot) {
+                CityLocation loc = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeLong(loc.getId());
+                out.writeUTF(loc.getName() == null ? "" : loc.getName());
+                out.writeDouble(loc.getLat());
+                out.writeDouble(loc.getLon());
+            }
+        } catch (IOException ex) {
+            tmp.delete();
+            return;
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            tmp.delete();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package app.weather;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Read-only, memory-mapped prefix index over city names for type-ahead suggestions.
+ * Nothing is parsed up front: lookups binary-search the sorted keys in the mapped file and
+ * only decode the few names they return, so opening costs one mmap and the pages are loaded
+ * by the OS as they are touched.
+ *
+ * <p>File layout (big-endian): {@code int magic, int count, int[count] entryOffsets}, then per
+ * entry {@code u8 keyLength, u8 nameLength, key, name}. Keys are folded names (lower case,
+ * accents stripped, UTF-8) sorted as unsigned bytes; names are the display text, UTF-8.
+ */
+public class CityNameIndex {
+    private static final int MAGIC = 0x57434C31; // "WCL1"
+    private static final String BUNDLED = "/app/weather/cities.idx";
+    // Prefix matches examined per lookup; short prefixes match thousands of names
+    private static final int SCAN_MAX = 2000;
+
+    private final ByteBuffer buf;
+    private final int count;
+
+    private CityNameIndex(ByteBuffer buf) throws IOException {
+        this.buf = buf;
+        if (buf.capacity() < 8 || buf.getInt(0) != MAGIC) throw new IOException("Not a city name index");
+        this.count = buf.getInt(4);
+    }
+
+    public static CityNameIndex open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new CityNameIndex(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    /**
+     * The index named by CITY_LIST_FILE, else the bundled one. A bundled index inside a jar
+     * cannot be mapped in place, so it is copied to the temp directory once and mapped from there.
+     */
+    public static CityNameIndex openDefault() throws IOException {
+        String configured = Config.load().getProperty("CITY_LIST_FILE", "").trim();
+        if (!configured.isEmpty()) return open(Path.of(configured));
+        URL url = CityNameIndex.class.getResource(BUNDLED);
+        if (url == null) throw new FileNotFoundException(BUNDLED);
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return open(Path.of(url.toURI()));
+            } catch (URISyntaxException ignored) {
+                // fall through to the copy
+            }
+        }
+        Path copy;
+        try (InputStream in = url.openStream()) {
+            byte[] bytes = in.readAllBytes();
+            copy = Path.of(System.getProperty("java.io.tmpdir"), "weather-cities-" + Arrays.hashCode(bytes) + ".idx");
+            if (!Files.isRegularFile(copy) || Files.size(copy) != bytes.length) {
+                Path tmp = Files.createTempFile(copy.getParent(), "weather-cities", ".tmp");
+                Files.write(tmp, bytes);
+                Files.move(tmp, copy, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        return open(copy);
+    }
+
+    public int size() { return count; }
+
+    /**
+     * Up to {@code limit} display names whose folded form starts with the folded {@code prefix}:
+     * an exact name match first, then shorter names first, then alphabetically.
+     */
+    public List<String> lookup(String prefix, int limit) {
+        byte[] p = fold(prefix).getBytes(StandardCharsets.UTF_8);
+        if (p.length == 0 || limit <= 0) return List.of();
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareKey(mid, p) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        // Rank by key length (exact match has the prefix's length); pack length and position in one long
+        int scanned = 0;
+        long[] found = new long[Math.min(SCAN_MAX, Math.max(0, count - lo))];
+        for (int i = lo; i < count && scanned < SCAN_MAX && startsWith(i, p); i++) {
+            found[scanned++] = ((long) keyLength(i) << 32) | i;
+        }
+        Arrays.sort(found, 0, scanned);
+        List<String> out = new ArrayList<>(Math.min(limit, scanned));
+        for (int k = 0; k < scanned && out.size() < limit; k++) {
+            out.add(name((int) found[k]));
+        }
+        return out;
+    }
+
+    /** Lower case, accents stripped, whitespace and commas normalized: the form keys are sorted and matched in. */
+    public static String fold(String s) {
+        String n = Normalizer.normalize(s.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return n.replaceAll("\\s+", " ").replaceAll(" ?, ?", ", ").toLowerCase(Locale.ROOT);
+    }
+
+    private int entry(int i) {
+        return buf.getInt(8 + 4 * i);
+    }
+
+    private int keyLength(int i) {
+        return buf.get(entry(i)) & 0xFF;
+    }
+
+    private int compareKey(int i, byte[] p) {
+        int at = entry(i);
+        int len = buf.get(at) & 0xFF;
+        at += 2;
+        int n = Math.min(len, p.length);
+        for (int k = 0; k < n; k++) {
+            int c = (buf.get(at + k) & 0xFF) - (p[k] & 0xFF);
+            if (c != 0) return c;
+        }
+        return len - p.length;
+    }
+
+    private boolean startsWith(int i, byte[] p) {
+        int at = entry(i);
+        if ((buf.get(at) & 0xFF) < p.length) return false;
+        at += 2;
+        for (int k = 0; k < p.length; k++) {
+            if (buf.get(at + k) != p[k]) return false;
+        }
+        return true;
+    }
+
+    private String name(int i) {
+        int at = entry(i);
+        int keyLen = buf.get(at) & 0xFF;
+        int nameLen = buf.get(at + 1) & 0xFF;
+        byte[] bytes = new byte[nameLen];
+        buf.get(at + 2 + keyLen, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Writes an index for the given display names; duplicates are dropped. */
+    public static void write(Iterable<String> names, Path out) throws IOException {
+        List<byte[][]> entries = new ArrayList<>();
+        for (String name : names) {
+            byte[] key = fold(name).getBytes(StandardCharsets.UTF_8);
+            byte[] display = name.trim().getBytes(StandardCharsets.UTF_8);
+            if (key.length == 0 || key.length > 255 || display.length > 255) continue;
+            entries.add(new byte[][] { key, display });
+        }
+        entries.sort((a, b) -> {
+            int c = Arrays.compareUnsigned(a[0], b[0]);
+            return c != 0 ? c : Arrays.compareUnsigned(a[1], b[1]);
+        });
+        List<byte[][]> unique = new ArrayList<>(entries.size());
+        for (byte[][] e : entries) {
+            if (unique.isEmpty() || !Arrays.equals(unique.get(unique.size() - 1)[1], e[1])) unique.add(e);
+        }
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(out)))) {
+            data.writeInt(MAGIC);
+            data.writeInt(unique.size());
+            int at = 8 + 4 * unique.size();
+            for (byte[][] e : unique) {
+                data.writeInt(at);
+                at += 2 + e[0].length + e[1].length;
+            }
+            for (byte[][] e : unique) {
+                data.writeByte(e[0].length);
+                data.writeByte(e[1].length);
+                data.write(e[0]);
+                data.write(e[1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package app.weather;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Argument helpers shared by the command-line tools ({@code WeatherCli}, {@link SignageExport}). */
+public final class CliArgs {
+    private CliArgs() { }
+
+    /** The value following an option; {@code i} is its index, already incremented past the option. */
+    public static String value(String[] args, int i) {
+        if (i >= args.length) throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        return args[i];
+    }
+
+    // One city per line; blank lines and # comments are skipped. "-" reads stdin.
+    public static List<String> readCities(String source) throws IOException {
+        List<String> cities = new ArrayList<>();
+        try (BufferedReader r = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) cities.add(line);
+            }
+        }
+        return cities;
+    }
+}
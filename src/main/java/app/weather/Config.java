@@ -5,11 +5,29 @@ import java.io.InputStream;
 import java.util.Properties;
 
 public class Config {
-    public static Properties load() {
-        Properties props = new Properties();
-        try (InputStream in = Config.class.getResourceAsStream("/app/weather/config.properties")) {
-            if (in != null) props.load(in);
-        } catch (IOException ignored) { }
-        return props;
+    private static Properties loaded;
+
+    // Read once per process; each caller gets its own copy
+    public static synchronized Properties load() {
+        if (loaded == null) {
+            loaded = new Properties();
+            try (InputStream in = Config.class.getResourceAsStream("/app/weather/config.properties")) {
+                if (in != null) loaded.load(in);
+            } catch (IOException ignored) { }
+        }
+        return (Properties) loaded.clone();
+    }
+
+    // Numeric settings fall back to the default when missing or malformed
+    public static long getLong(Properties props, String key, long def) {
+        try {
+            return Long.parseLong(props.getProperty(key, "").trim());
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    public static int getInt(Properties props, String key, int def) {
+        return (int) getLong(props, key, def);
     }
 }
@@ -0,0 +1,62 @@
+package app.weather;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.text.Font;
+import javafx.util.Duration;
+
+/**
+ * Small overlay with live p50/p99 latencies, error rates and cache hit counts from {@link Metrics}.
+ * It only refreshes (once a second) while it is visible.
+ */
+public class DiagnosticsPanel {
+    private final Metrics metrics = Metrics.shared();
+    private final Label text = new Label();
+    private final Timeline refresh = new Timeline(new KeyFrame(Duration.seconds(1), e -> update()));
+
+    public DiagnosticsPanel() {
+        text.setFont(Font.font("Monospaced", 11));
+        text.setPadding(new Insets(6, 10, 6, 10));
+        text.setStyle("-fx-background-color: rgba(0,0,0,0.65); -fx-text-fill: #e0e0e0; -fx-background-radius: 4;");
+        text.setVisible(false);
+        text.setManaged(false);
+        refresh.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    public Node getNode() {
+        return text;
+    }
+
+    public void setShowing(boolean showing) {
+        text.setVisible(showing);
+        text.setManaged(showing);
+        if (showing) {
+            update();
+            refresh.play();
+        } else {
+            refresh.stop();
+        }
+    }
+
+    private void update() {
+        text.setText(line("weather", metrics.weather) + "\n"
+                + line("forecast", metrics.forecast) + "\n"
+                + line("decode", metrics.decode) + "\n"
+                + line("fx apply", metrics.fxApply) + "  coalesced " + metrics.getRenderCoalesced() + "\n"
+                + String.format("cache    weather %d/%d  forecast %d/%d (hits/misses)  304s %d  retries %d  breaker %s",
+                        metrics.getWeatherCacheHits(), metrics.getWeatherCacheMisses(),
+                        metrics.getForecastCacheHits(), metrics.getForecastCacheMisses(), metrics.getHttpNotModified(),
+                        metrics.getHttpRetries(), metrics.getBreakerState()) + "\n"
+                + String.format("startup  stage shown %d ms, first data %d ms",
+                        metrics.getStageShownMillis(), metrics.getFirstDataMillis()));
+    }
+
+    private static String line(String name, Metrics.Timer timer) {
+        LatencyHistogram h = timer.getHistogram();
+        return String.format("%-8s p50 %7.1f ms  p99 %7.1f ms  err %5.1f%%  n=%d",
+                name, h.percentile(50) / 1e6, h.percentile(99) / 1e6, timer.errorRate() * 100, timer.getCount());
+    }
+}
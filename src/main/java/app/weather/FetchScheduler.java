@@ -0,0 +1,113 @@
+package app.weather;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs UI-triggered fetches on a small bounded pool with latest-wins semantics. Each
+ * {@link #begin} starts a new generation and cancels the previous one: its queued tasks are
+ * dropped, running ones are interrupted (which aborts their HTTP calls), and its results are
+ * never handed to the delivery executor.
+ */
+public class FetchScheduler {
+
+    /** One generation of work; obtain with {@link FetchScheduler#begin}. */
+    public final class Request {
+        private final long generation;
+        private final List<Future<?>> tasks = new ArrayList<>();
+        private final List<CompletableFuture<?>> results = new ArrayList<>();
+
+        private Request(long generation) {
+            this.generation = generation;
+        }
+
+        public long getGeneration() { return generation; }
+
+        public boolean isCurrent() {
+            return current == this;
+        }
+
+        /**
+         * Runs {@code task} on the pool. The returned future completes on the delivery executor,
+         * and only while this request is still the latest; a superseded request's futures are
+         * cancelled from the thread that superseded it.
+         */
+        public <T> CompletableFuture<T> submit(Callable<T> task) {
+            CompletableFuture<T> out = new CompletableFuture<>();
+            synchronized (this) {
+                if (!isCurrent()) {
+                    out.cancel(false);
+                    return out;
+                }
+                results.add(out);
+                tasks.add(pool.submit(() -> {
+                    try {
+                        T value = task.call();
+                        deliver(() -> out.complete(value));
+                    } catch (Exception ex) {
+                        deliver(() -> out.completeExceptionally(ex));
+                    }
+                }));
+            }
+            return out;
+        }
+
+        private void deliver(Runnable r) {
+            if (!isCurrent()) return;
+            delivery.execute(() -> {
+                if (isCurrent()) r.run();
+            });
+        }
+
+        private synchronized void cancel() {
+            for (Future<?> f : tasks) f.cancel(true);
+            for (CompletableFuture<?> f : results) f.cancel(false);
+        }
+    }
+
+    private final ThreadPoolExecutor pool;
+    private final Executor delivery;
+    private final AtomicInteger threadIds = new AtomicInteger();
+    private volatile Request current;
+    private long generations = 0;
+
+    /**
+     * @param threads  pool size; bounds how many fetch calls run at once
+     * @param delivery where results are handed over, e.g. {@code Platform::runLater}
+     */
+    public FetchScheduler(int threads, Executor delivery) {
+        this.delivery = delivery;
+        this.pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "fetch-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    /** Starts a new generation, cancelling whatever the previous one still has in flight. */
+    public synchronized Request begin() {
+        Request previous = current;
+        Request next = new Request(++generations);
+        current = next;
+        if (previous != null) {
+            previous.cancel();
+            pool.purge(); // drop the cancelled tasks still sitting in the queue
+        }
+        return next;
+    }
+
+    public void shutdown() {
+        Request last = current;
+        if (last != null) last.cancel();
+        pool.shutdownNow();
+    }
+}
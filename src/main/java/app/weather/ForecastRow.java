@@ -0,0 +1,72 @@
+package app.weather;
+
+import app.weather.model.ForecastSeries;
+import app.weather.model.Units;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+// Forecast table row with its cell text formatted once, when the data or units change;
+// rows are updated in place so the table only repaints the cells whose text changed
+public class ForecastRow {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("EEE, MMM d HH:mm");
+
+    private final ReadOnlyStringWrapper time = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper temp = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper wind = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper condition = new ReadOnlyStringWrapper();
+    // What the cells were formatted from; a cell whose value did not change is not formatted again
+    private long epoch;
+    private double tempValue;
+    private double windValue;
+    private Units units;
+    private ZoneId zone;
+
+    private ForecastRow() { }
+
+    public static ForecastRow of(ForecastSeries series, int i, Units units, ZoneId zone) {
+        ForecastRow row = new ForecastRow();
+        row.update(series, i, units, zone);
+        return row;
+    }
+
+    /** Shows entry {@code i} of {@code series}; returns whether any cell changed. */
+    public boolean update(ForecastSeries series, int i, Units units, ZoneId zone) {
+        boolean changed = false;
+        long e = series.epochAt(i);
+        if (e != epoch || !zone.equals(this.zone)) {
+            epoch = e;
+            this.zone = zone;
+            changed = set(time, Instant.ofEpochSecond(e).atZone(zone).format(TIME));
+        }
+        boolean unitsChanged = units != this.units;
+        this.units = units;
+        double t = series.tempAt(i);
+        if (unitsChanged || Double.compare(t, tempValue) != 0) {
+            tempValue = t;
+            changed |= set(temp, String.format("%.1f°", units.temperature(t)));
+        }
+        double w = series.windAt(i);
+        if (unitsChanged || Double.compare(w, windValue) != 0) {
+            windValue = w;
+            changed |= set(wind, String.format("%.1f", units.windSpeed(w)));
+        }
+        changed |= set(condition, series.conditionAt(i));
+        return changed;
+    }
+
+    // Equal text is not set again, so bound cells see no change
+    private static boolean set(ReadOnlyStringWrapper cell, String text) {
+        if (text.equals(cell.get())) return false;
+        cell.set(text);
+        return true;
+    }
+
+    public ReadOnlyStringProperty timeProperty() { return time.getReadOnlyProperty(); }
+    public ReadOnlyStringProperty tempProperty() { return temp.getReadOnlyProperty(); }
+    public ReadOnlyStringProperty windProperty() { return wind.getReadOnlyProperty(); }
+    public ReadOnlyStringProperty conditionProperty() { return condition.getReadOnlyProperty(); }
+}
@@ -0,0 +1,215 @@
+package app.weather;
+
+import app.weather.model.DailyAggregator;
+import app.weather.model.DailyRange;
+import app.weather.model.ForecastEntry;
+import app.weather.model.ForecastSeries;
+import app.weather.model.Units;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 5-day forecast panel: per-day min/max strip, a temperature chart and the full 3-hour table.
+ * All text is formatted once per update; the chart is downsampled (LTTB) to its pixel width.
+ * Updates are diffed into the existing rows, labels and chart points, so a new forecast only
+ * touches what changed and never replaces the table's item list.
+ */
+public class ForecastView {
+    private static final DateTimeFormatter AXIS_TIME = DateTimeFormatter.ofPattern("EEE HH:mm");
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("EEE d");
+    // Roughly one plotted point per this many pixels of chart width
+    private static final int PIXELS_PER_POINT = 12;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    // Built the first time the Table tab is opened
+    private TableView<ForecastRow> table;
+    private final NumberAxis timeAxis = new NumberAxis();
+    private final NumberAxis tempAxis = new NumberAxis();
+    private final LineChart<Number, Number> chart = new LineChart<>(timeAxis, tempAxis);
+    private final XYChart.Series<Number, Number> line = new XYChart.Series<>();
+    private final HBox dailyBox = new HBox(18);
+    private final TabPane tabs;
+    private final VBox node;
+
+    private List<ForecastEntry> shown = null;
+    private ForecastSeries series = ForecastSeries.empty();
+    private Units units = Units.METRIC;
+    private int plottedThreshold = -1;
+
+    public ForecastView() {
+        timeAxis.setForceZeroInRange(false);
+        timeAxis.setAutoRanging(true);
+        timeAxis.setTickLabelFormatter(new StringConverter<>() {
+            @Override
+            public String toString(Number epoch) {
+                return Instant.ofEpochSecond(epoch.longValue()).atZone(zone).format(AXIS_TIME);
+            }
+
+            @Override
+            public Number fromString(String s) {
+                return 0;
+            }
+        });
+        tempAxis.setForceZeroInRange(false);
+        chart.setAnimated(false);
+        chart.setCreateSymbols(false);
+        chart.setLegendVisible(false);
+        chart.getData().add(line);
+        // Re-plot only when the width changes enough to alter the number of plotted points
+        chart.widthProperty().addListener((obs, oldW, newW) -> plotChart(false));
+
+        Tab chartTab = new Tab("Chart", chart);
+        Tab tableTab = new Tab("Table");
+        tableTab.selectedProperty().addListener((obs, was, selected) -> {
+            if (selected && table == null) {
+                tableTab.setContent(buildTable());
+                fillTable();
+            }
+        });
+        tabs = new TabPane(chartTab, tableTab);
+        tabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        VBox.setVgrow(tabs, Priority.ALWAYS);
+
+        dailyBox.setPadding(new Insets(4, 0, 4, 0));
+        node = new VBox(8, dailyBox, tabs);
+        VBox.setVgrow(node, Priority.ALWAYS);
+    }
+
+    public Node getNode() {
+        return node;
+    }
+
+    // Other per-city views share the tab strip
+    public void addTab(Tab tab) {
+        tabs.getTabs().add(tab);
+    }
+
+    public void show(List<ForecastEntry> forecast, Units units) {
+        // Reused results (cache hits, 304s) arrive as the same list
+        if (forecast == shown && units == this.units) return;
+        this.shown = forecast;
+        this.series = ForecastSeries.copyOf(forecast);
+        this.units = units;
+        render();
+    }
+
+    public void setUnits(Units units) {
+        if (this.units == units) return;
+        this.units = units;
+        render();
+    }
+
+    private void render() {
+        fillTable();
+
+        List<DailyRange> days = DailyAggregator.of(series, zone);
+        ObservableList<Node> labels = dailyBox.getChildren();
+        if (labels.size() > days.size()) labels.remove(days.size(), labels.size());
+        for (int i = 0; i < days.size(); i++) {
+            DailyRange d = days.get(i);
+            String text = String.format("%s  %.0f° / %.0f°", d.getDate().format(DAY),
+                    units.temperature(d.getMin()), units.temperature(d.getMax()));
+            if (i == labels.size()) {
+                labels.add(new Label(text));
+            } else {
+                Label label = (Label) labels.get(i);
+                if (!text.equals(label.getText())) label.setText(text);
+            }
+        }
+
+        String axisLabel = "Temperature (" + units.getTemperatureSymbol() + ")";
+        if (!axisLabel.equals(tempAxis.getLabel())) tempAxis.setLabel(axisLabel);
+        plotChart(true);
+    }
+
+    private TableView<ForecastRow> buildTable() {
+        table = new TableView<>();
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_ALL_COLUMNS);
+        TableColumn<ForecastRow, String> timeCol = new TableColumn<>("Time");
+        timeCol.setCellValueFactory(cd -> cd.getValue().timeProperty());
+        TableColumn<ForecastRow, String> tempCol = new TableColumn<>("Temp");
+        tempCol.setCellValueFactory(cd -> cd.getValue().tempProperty());
+        TableColumn<ForecastRow, String> windCol = new TableColumn<>("Wind");
+        windCol.setCellValueFactory(cd -> cd.getValue().windProperty());
+        TableColumn<ForecastRow, String> condCol = new TableColumn<>("Condition");
+        condCol.setCellValueFactory(cd -> cd.getValue().conditionProperty());
+        table.getColumns().add(timeCol);
+        table.getColumns().add(tempCol);
+        table.getColumns().add(windCol);
+        table.getColumns().add(condCol);
+        table.setPlaceholder(new Label("No forecast yet"));
+        return table;
+    }
+
+    // Rows are only formatted while the table exists; existing rows are updated in place
+    private void fillTable() {
+        if (table == null) return;
+        ObservableList<ForecastRow> items = table.getItems();
+        int n = series.size();
+        if (items.size() > n) items.remove(n, items.size());
+        int kept = items.size();
+        for (int i = 0; i < kept; i++) {
+            items.get(i).update(series, i, units, zone);
+        }
+        if (kept < n) {
+            List<ForecastRow> added = new ArrayList<>(n - kept);
+            for (int i = kept; i < n; i++) {
+                added.add(ForecastRow.of(series, i, units, zone));
+            }
+            items.addAll(added);
+        }
+    }
+
+    private void plotChart(boolean force) {
+        int n = series.size();
+        double width = chart.getWidth();
+        int threshold = width > 0 ? Math.max(8, (int) (width / PIXELS_PER_POINT)) : n;
+        threshold = Math.min(threshold, n);
+        if (!force && threshold == plottedThreshold) return;
+        plottedThreshold = threshold;
+
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = series.epochAt(i);
+            y[i] = units.temperature(series.tempAt(i));
+        }
+        // Move the existing points rather than replacing the series, which would rebuild its path node
+        int[] selected = Lttb.select(x, y, threshold);
+        ObservableList<XYChart.Data<Number, Number>> points = line.getData();
+        if (points.size() > selected.length) points.remove(selected.length, points.size());
+        int kept = points.size();
+        for (int k = 0; k < kept; k++) {
+            XYChart.Data<Number, Number> p = points.get(k);
+            int i = selected[k];
+            if (p.getXValue().doubleValue() != x[i]) p.setXValue(x[i]);
+            if (p.getYValue().doubleValue() != y[i]) p.setYValue(y[i]);
+        }
+        if (kept < selected.length) {
+            List<XYChart.Data<Number, Number>> added = new ArrayList<>(selected.length - kept);
+            for (int k = kept; k < selected.length; k++) {
+                added.add(new XYChart.Data<>(x[selected[k]], y[selected[k]]));
+            }
+            points.addAll(added);
+        }
+    }
+}
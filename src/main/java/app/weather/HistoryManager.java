@@ -1,41 +1,262 @@
 package app.weather;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Search history, one entry per city with its last search time and search count.
+ * The file is read once into an in-memory index; each search appends one line and
+ * the log is periodically compacted (one line per city, capped). Reads, writes and index
+ * changes all run in order on one background thread, so the FX thread never waits on the
+ * disk; the display list is updated through the publisher (the FX thread in the app).
+ * Line format: {@code city @ yyyy-MM-dd HH:mm} with an optional {@code  #count} suffix.
+ */
 public class HistoryManager {
-    private final File file = new File(System.getProperty("user.home"), ".weather_app_history.txt");
+    private static final int DEFAULT_MAX_ENTRIES = 200;
+
+    private final File file;
     private final DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private final int maxEntries;
+    private final Executor publisher;
 
-    public void add(String city) {
-        String line = city + " @ " + LocalDateTime.now().format(fmt);
-        try (Writer w = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
-            w.write(line + System.lineSeparator());
-        } catch (IOException ignored) {}
+    // Keyed by normalized city, least recently searched first; changed only on the writer thread, under the lock
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>();
+    // Display rows, most recent first; updated in place, through the publisher only
+    private final ObservableList<String> items = FXCollections.observableArrayList();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "history-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private CompletableFuture<Void> loading; // guarded by this
+    private int logLines = 0; // writer thread
+
+    private static final class Entry {
+        final String city;
+        String lastSeen; // yyyy-MM-dd HH:mm, which also sorts chronologically as text
+        int count;
+        String display;
+
+        Entry(String city, String lastSeen, int count) {
+            this.city = city;
+            this.lastSeen = lastSeen;
+            this.count = count;
+        }
     }
 
-    public ObservableList<String> load() {
-        ObservableList<String> items = FXCollections.observableArrayList();
-        if (!file.exists()) return items;
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
-            String s;
-            while ((s = br.readLine()) != null) {
-                if (!s.isBlank()) items.add(s.trim());
-            }
-        } catch (IOException ignored) {}
-        return items;
+    public HistoryManager() {
+        this(Config.getInt(Config.load(), "HISTORY_MAX_ENTRIES", DEFAULT_MAX_ENTRIES));
+    }
+
+    public HistoryManager(int maxEntries) {
+        this(new File(System.getProperty("user.home"), ".weather_app_history.txt"), maxEntries);
     }
 
+    public HistoryManager(File file, int maxEntries) {
+        this(file, maxEntries, Platform::runLater);
+    }
+
+    /** @param publisher runs every change to the list from {@link #getAll}, in order */
+    public HistoryManager(File file, int maxEntries, Executor publisher) {
+        this.file = file;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.publisher = publisher;
+    }
+
+    /** Records a search behind the first load; the returned future completes once it is written. */
+    public CompletableFuture<Void> add(String city) {
+        String now = LocalDateTime.now().format(fmt);
+        load();
+        return CompletableFuture.runAsync(() -> record(city.trim(), now), writer);
+    }
+
+    /** Reads the history file on the writer thread on first call; later calls return the same future. */
+    public synchronized CompletableFuture<Void> load() {
+        if (loading == null) loading = CompletableFuture.runAsync(this::readLog, writer);
+        return loading;
+    }
+
+    /** The live display list; starts the load, and the rows appear once it has finished. */
     public ObservableList<String> getAll() {
-        return load();  // Simply return the loaded file contents
+        load();
+        return items;
+    }
+
+    /** Search count for a city, 0 if it was never searched. Waits for the first load. */
+    public int getCount(String city) {
+        load().join();
+        synchronized (this) {
+            Entry e = index.get(WeatherService.normalize(city));
+            return e == null ? 0 : e.count;
+        }
+    }
+
+    /**
+     * Searched cities whose name starts with {@code prefix} (as {@link CityNameIndex#fold} compares), most searched first.
+     * Waits for the first load, so call it off the FX thread.
+     */
+    public List<String> matching(String prefix, int limit) {
+        load().join();
+        String p = CityNameIndex.fold(prefix);
+        List<Entry> hits = new ArrayList<>();
+        synchronized (this) {
+            for (Entry e : index.values()) {
+                if (CityNameIndex.fold(e.city).startsWith(p)) hits.add(e);
+            }
+        }
+        hits.sort((a, b) -> Integer.compare(b.count, a.count));
+        List<String> out = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int i = 0; i < hits.size() && i < limit; i++) out.add(hits.get(i).city);
+        return out;
     }
 
     public void clear() {
-        if (file.exists()) file.delete();
+        load();
+        writer.execute(() -> {
+            synchronized (this) {
+                index.clear();
+            }
+            logLines = 0;
+            file.delete();
+            publisher.execute(items::clear);
+        });
+    }
+
+    // Writer thread
+    private void readLog() {
+        LinkedHashMap<String, Entry> read = new LinkedHashMap<>();
+        int lines = 0;
+        if (file.exists()) {
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                String s;
+                while ((s = br.readLine()) != null) {
+                    if (s.isBlank()) continue;
+                    lines++;
+                    merge(read, s.trim());
+                }
+            } catch (IOException ignored) {}
+        }
+        trim(read);
+        List<String> rows = new ArrayList<>(read.size());
+        for (Entry e : read.values()) {
+            e.display = display(e);
+            rows.add(0, e.display);
+        }
+        synchronized (this) {
+            index.putAll(read);
+        }
+        logLines = lines;
+        publisher.execute(() -> items.setAll(rows));
+        maybeCompact();
+    }
+
+    // Writer thread, behind the first load
+    private void record(String city, String now) {
+        String key = WeatherService.normalize(city);
+        Entry e;
+        String replaced;
+        List<String> dropped;
+        synchronized (this) {
+            e = index.remove(key);
+            if (e == null) e = new Entry(city, now, 0);
+            replaced = e.display;
+            e.lastSeen = now;
+            e.count++;
+            e.display = display(e);
+            index.put(key, e);
+            dropped = trim(index);
+        }
+        String shown = e.display;
+        publisher.execute(() -> {
+            if (replaced != null) items.remove(replaced);
+            items.add(0, shown);
+            items.removeAll(dropped);
+        });
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            w.write(e.city + " @ " + now + System.lineSeparator());
+            logLines++;
+        } catch (IOException ignored) {}
+        maybeCompact();
+    }
+
+    // Folds one log line into the index being read; later lines win for last-seen time
+    private static void merge(LinkedHashMap<String, Entry> read, String line) {
+        int at = line.lastIndexOf(" @ ");
+        if (at <= 0) return;
+        String city = line.substring(0, at).trim();
+        String rest = line.substring(at + 3).trim();
+        int count = 1;
+        int hash = rest.indexOf(" #");
+        if (hash >= 0) {
+            try {
+                count = Math.max(1, Integer.parseInt(rest.substring(hash + 2).trim()));
+            } catch (NumberFormatException ignored) {}
+            rest = rest.substring(0, hash).trim();
+        }
+        // Cheap shape check instead of a full date parse per line; large logs load much faster
+        if (rest.length() != 16 || rest.charAt(4) != '-' || rest.charAt(10) != ' ') return;
+        String seen = rest;
+        String key = WeatherService.normalize(city);
+        Entry e = read.remove(key);
+        if (e == null) {
+            e = new Entry(city, seen, 0);
+        }
+        if (seen.compareTo(e.lastSeen) > 0) e.lastSeen = seen;
+        e.count += count;
+        read.put(key, e);
+    }
+
+    // Drops the least recently searched past the cap; returns the rows they were shown as
+    private List<String> trim(LinkedHashMap<String, Entry> entries) {
+        List<String> dropped = new ArrayList<>();
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            Entry oldest = it.next();
+            it.remove();
+            if (oldest.display != null) dropped.add(oldest.display);
+        }
+        return dropped;
+    }
+
+    // Writer thread. Compacts once the log holds well more lines than there are distinct cities; the
+    // index only changes on this thread, so reading it here needs no lock and no append can interleave.
+    private void maybeCompact() {
+        if (logLines <= 2 * Math.max(index.size(), 16)) return;
+        List<String> lines = new ArrayList<>(index.size());
+        for (Entry e : index.values()) {
+            lines.add(e.city + " @ " + e.lastSeen + (e.count > 1 ? " #" + e.count : ""));
+        }
+        // Rewrites the log as one line per city via a temp file, so a crash never loses the old log
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            try (Writer w = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+                for (String line : lines) w.write(line + System.lineSeparator());
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logLines = lines.size();
+        } catch (IOException ex) {
+            tmp.delete();
+        }
+    }
+
+    private String display(Entry e) {
+        String row = e.city + " @ " + e.lastSeen;
+        return e.count > 1 ? row + " (" + e.count + "×)" : row;
     }
 }
@@ -0,0 +1,22 @@
+package app.weather;
+
+import java.io.IOException;
+
+// Non-success HTTP status from the API, after any retries
+public class HttpStatusException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    public HttpStatusException(int status) {
+        super("HTTP error " + status);
+        this.status = status;
+    }
+
+    public int getStatus() { return status; }
+
+    /** 4xx other than 429 means the request was bad (unknown city, wrong key), not that the API is unhealthy. */
+    public boolean isClientError() {
+        return status >= 400 && status < 500 && status != 429;
+    }
+}
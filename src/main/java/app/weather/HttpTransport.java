@@ -0,0 +1,294 @@
+package app.weather;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HTTP layer under {@link WeatherService}: one HttpClient with connect/request timeouts,
+ * HTTP/2 preference and a bounded executor, gzip responses decompressed while they are parsed,
+ * and bounded retries with jittered exponential backoff. Only failures that are safe to repeat
+ * for a GET are retried: 429, 5xx and connection errors or timeouts. Every attempt, retries
+ * included, takes a rate-limiter permit. Callers that kept the ETag or Last-Modified of an
+ * earlier response can make the GET conditional; a 304 comes back without a body.
+ * Async responses complete on a separate body pool, so a parser blocked on the network
+ * holds one of those threads, never one the HttpClient needs to deliver the body.
+ */
+public class HttpTransport {
+    private static final AtomicInteger threadIds = new AtomicInteger();
+
+    /** A successful response: a body to parse, or none when the server answered 304 Not Modified. */
+    public static final class Response {
+        private final InputStream body;
+        private final String etag;
+        private final String lastModified;
+
+        Response(InputStream body, String etag, String lastModified) {
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public InputStream getBody() { return body; }
+        public boolean isNotModified() { return body == null; }
+        public String getEtag() { return etag; }
+        public String getLastModified() { return lastModified; }
+    }
+
+    /**
+     * Time one call spent waiting for rate-limiter permits, retries included. Callers subtract it
+     * so latency and slow-call checks measure the network, not our own pacing.
+     */
+    public static final class Throttle {
+        private final AtomicLong waitedNanos = new AtomicLong();
+
+        void add(long nanos) {
+            if (nanos > 0) waitedNanos.addAndGet(nanos);
+        }
+
+        public long getWaitedNanos() { return waitedNanos.get(); }
+
+        /** Nanoseconds since {@code startNanos}, less the time spent waiting for permits. */
+        public long elapsedSince(long startNanos) {
+            return Math.max(0, System.nanoTime() - startNanos - waitedNanos.get());
+        }
+    }
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final ExecutorService bodyExecutor;
+    private final Duration requestTimeout;
+    private final int maxRetries;
+    private final long retryBaseMillis;
+    private final long retryMaxMillis;
+    private final boolean gzip;
+    private final RateLimiter rateLimiter;
+    private final Metrics metrics = Metrics.shared();
+
+    public HttpTransport(Properties props) {
+        int threads = Math.max(1, Config.getInt(props, "HTTP_THREADS", 4));
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "http-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        bodyExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "http-body-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        HttpClient.Version version = "HTTP_1_1".equalsIgnoreCase(props.getProperty("HTTP_VERSION", "").trim())
+                ? HttpClient.Version.HTTP_1_1 : HttpClient.Version.HTTP_2;
+        client = HttpClient.newBuilder()
+                .version(version) // HTTP/2 multiplexes concurrent calls over one connection; falls back to 1.1
+                .connectTimeout(Duration.ofMillis(Math.max(1, Config.getLong(props, "HTTP_CONNECT_TIMEOUT_MS", 3000))))
+                .executor(executor)
+                .build();
+        requestTimeout = Duration.ofMillis(Math.max(1, Config.getLong(props, "HTTP_REQUEST_TIMEOUT_MS", 8000)));
+        maxRetries = Math.max(0, Config.getInt(props, "HTTP_MAX_RETRIES", 2));
+        retryBaseMillis = Math.max(1, Config.getLong(props, "HTTP_RETRY_BASE_MS", 250));
+        retryMaxMillis = Math.max(retryBaseMillis, Config.getLong(props, "HTTP_RETRY_MAX_MS", 4000));
+        gzip = !"false".equalsIgnoreCase(props.getProperty("HTTP_GZIP", "true").trim());
+        int callsPerMinute = Config.getInt(props, "RATE_LIMIT_PER_MINUTE", 60);
+        rateLimiter = callsPerMinute > 0 ? RateLimiter.perMinute(callsPerMinute) : null;
+    }
+
+    /**
+     * Blocking GET; returns the (decompressed) body as a stream to parse incrementally.
+     * Closing it early abandons the rest of the download.
+     */
+    public InputStream get(String url) throws Exception {
+        return get(url, null, null).getBody();
+    }
+
+    /** Conditional blocking GET; either validator may be null. */
+    public Response get(String url, String etag, String lastModified) throws Exception {
+        return get(url, etag, lastModified, null);
+    }
+
+    /** As {@link #get(String, String, String)}, adding permit waits to {@code throttle} if given. */
+    public Response get(String url, String etag, String lastModified, Throttle throttle) throws Exception {
+        HttpRequest req = request(url, etag, lastModified);
+        for (int attempt = 0; ; attempt++) {
+            if (rateLimiter != null) {
+                long waitStart = System.nanoTime();
+                rateLimiter.acquire();
+                if (throttle != null) throttle.add(System.nanoTime() - waitStart);
+            }
+            HttpResponse<InputStream> resp;
+            try {
+                resp = client.send(req, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (IOException ex) {
+                if (attempt >= maxRetries || !isRetryable(ex)) throw ex;
+                retrying(backoff(attempt, -1));
+                continue;
+            }
+            int status = resp.statusCode();
+            if (status == 304) {
+                resp.body().close();
+                return response(resp, null);
+            }
+            if (status < 400) return response(resp, body(resp, resp.body()));
+            long retryAfter = retryAfterMillis(resp);
+            resp.body().close();
+            if (attempt >= maxRetries || !isRetryable(status)) throw new HttpStatusException(status);
+            retrying(backoff(attempt, retryAfter));
+        }
+    }
+
+    /** Async GET with the same retry policy; waits between attempts never block a thread. */
+    public CompletableFuture<InputStream> getAsync(String url) {
+        return getAsync(url, null, null).thenApply(Response::getBody);
+    }
+
+    /** Conditional async GET; either validator may be null. */
+    public CompletableFuture<Response> getAsync(String url, String etag, String lastModified) {
+        return getAsync(url, etag, lastModified, null);
+    }
+
+    /**
+     * As {@link #getAsync(String, String, String)}, adding permit waits to {@code throttle} if given.
+     * Cancelling the returned future stops further attempts and gives back a permit still waited for.
+     */
+    public CompletableFuture<Response> getAsync(String url, String etag, String lastModified, Throttle throttle) {
+        CompletableFuture<Response> out = new CompletableFuture<>();
+        attemptAsync(request(url, etag, lastModified), url, etag, lastModified, 0, throttle, out).whenComplete((resp, err) -> {
+            if (err != null) {
+                out.completeExceptionally(unwrap(err));
+            } else if (!out.complete(resp) && resp.getBody() != null) {
+                try {
+                    resp.getBody().close(); // cancelled while the response was on its way
+                } catch (IOException ignored) { }
+            }
+        });
+        return out;
+    }
+
+    private CompletableFuture<Response> attemptAsync(HttpRequest req, String url, String etag, String lastModified, int attempt,
+                                                     Throttle throttle, CompletableFuture<Response> caller) {
+        if (caller.isDone()) return CompletableFuture.failedFuture(new CancellationException());
+        long wait = rateLimiter != null ? rateLimiter.reserve() : 0;
+        if (throttle != null) throttle.add(wait);
+        // The body streams to the parser as it arrives, as on the blocking path, so an early stop or
+        // gzip never needs the whole body in memory; headers are handled on the body pool (see class doc)
+        CompletableFuture<HttpResponse<InputStream>> sent = wait > 0
+                ? CompletableFuture.supplyAsync(() -> req, CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS, executor))
+                        .thenCompose(r -> {
+                            if (caller.isDone()) {
+                                rateLimiter.refund(); // abandoned while waiting for its permit
+                                return CompletableFuture.failedFuture(new CancellationException());
+                            }
+                            return client.sendAsync(r, HttpResponse.BodyHandlers.ofInputStream());
+                        })
+                : client.sendAsync(req, HttpResponse.BodyHandlers.ofInputStream());
+        return sent.handleAsync((resp, err) -> {
+            if (err != null) {
+                Throwable cause = unwrap(err);
+                if (attempt < maxRetries && cause instanceof IOException io && isRetryable(io)) {
+                    return retryAsync(req, url, etag, lastModified, attempt, backoff(attempt, -1), throttle, caller);
+                }
+                return CompletableFuture.<Response>failedFuture(cause);
+            }
+            int status = resp.statusCode();
+            try {
+                if (status == 304) {
+                    resp.body().close();
+                    return CompletableFuture.completedFuture(response(resp, null));
+                }
+                if (status < 400) return CompletableFuture.completedFuture(response(resp, body(resp, resp.body())));
+                resp.body().close();
+            } catch (IOException ex) {
+                return CompletableFuture.<Response>failedFuture(ex);
+            }
+            if (attempt < maxRetries && isRetryable(status)) {
+                return retryAsync(req, url, etag, lastModified, attempt, backoff(attempt, retryAfterMillis(resp)), throttle, caller);
+            }
+            return CompletableFuture.<Response>failedFuture(new HttpStatusException(status));
+        }, bodyExecutor).thenCompose(f -> f);
+    }
+
+    private CompletableFuture<Response> retryAsync(HttpRequest req, String url, String etag, String lastModified, int attempt,
+                                                   long delayMillis, Throttle throttle, CompletableFuture<Response> caller) {
+        metrics.retries.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> req, CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS, executor))
+                .thenCompose(r -> attemptAsync(r, url, etag, lastModified, attempt + 1, throttle, caller));
+    }
+
+    private void retrying(long delayMillis) throws InterruptedException {
+        metrics.retries.incrementAndGet();
+        Thread.sleep(delayMillis);
+    }
+
+    private HttpRequest request(String url, String etag, String lastModified) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(url)).timeout(requestTimeout).GET();
+        if (gzip) b.header("Accept-Encoding", "gzip");
+        if (etag != null) b.header("If-None-Match", etag);
+        if (lastModified != null) b.header("If-Modified-Since", lastModified);
+        return b.build();
+    }
+
+    private static Response response(HttpResponse<?> resp, InputStream body) {
+        return new Response(body, resp.headers().firstValue("ETag").orElse(null),
+                resp.headers().firstValue("Last-Modified").orElse(null));
+    }
+
+    // Decompresses while the parser reads, so the inflated body is never held in memory
+    private static InputStream body(HttpResponse<?> resp, InputStream raw) throws IOException {
+        boolean gzipped = resp.headers().firstValue("Content-Encoding").map("gzip"::equalsIgnoreCase).orElse(false);
+        if (!gzipped) return raw;
+        try {
+            return new GZIPInputStream(raw, 8192);
+        } catch (IOException ex) {
+            raw.close();
+            throw ex;
+        }
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    // Connection failures and timeouts; an interrupted (cancelled) call is never retried
+    private static boolean isRetryable(IOException ex) {
+        if (Thread.currentThread().isInterrupted()) return false;
+        return ex instanceof HttpTimeoutException // includes HttpConnectTimeoutException
+                || ex instanceof SocketException || ex instanceof EOFException;
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^attempt)], but never less than a Retry-After hint
+    private long backoff(int attempt, long retryAfterMillis) {
+        long cap = Math.min(retryMaxMillis, retryBaseMillis << Math.min(attempt, 20));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        return retryAfterMillis > 0 ? Math.min(retryMaxMillis, Math.max(delay, retryAfterMillis)) : delay;
+    }
+
+    private static long retryAfterMillis(HttpResponse<?> resp) {
+        try {
+            return resp.headers().firstValue("Retry-After").map(v -> Long.parseLong(v.trim()) * 1000).orElse(-1L);
+        } catch (NumberFormatException ex) {
+            return -1; // HTTP-date form; fall back to our own backoff
+        }
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        return (t instanceof CompletionException && t.getCause() != null) ? t.getCause() : t;
+    }
+}
@@ -0,0 +1,170 @@
+package app.weather;
+
+import javafx.scene.image.Image;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Weather icons. Bundled icons are decoded once and kept in memory; OpenWeather icons are
+ * downloaded once per code into {@code ~/.weather_app_icons} and served from memory or disk
+ * afterwards. Disk reads run on {@link AppIo}, download timeouts on the shared {@link AppScheduler}.
+ */
+public class IconCache {
+
+    // Map OpenWeatherMap icon codes to local resource paths or fallback descriptions
+    public static final Map<String, String> ICON_MAP = new HashMap<>();
+    static {
+        ICON_MAP.put("01d", "/app/weather/icons/sun.png"); // Clear sky (day)
+        ICON_MAP.put("01n", "/app/weather/icons/moon.png"); // Clear sky (night)
+        ICON_MAP.put("02d", "/app/weather/icons/partly_cloudy_day.png"); // Few clouds (day)
+        ICON_MAP.put("02n", "/app/weather/icons/partly_cloudy_night.png"); // Few clouds (night)
+        ICON_MAP.put("03d", "/app/weather/icons/cloud.png"); // Scattered clouds
+        ICON_MAP.put("03n", "/app/weather/icons/cloud.png");
+        ICON_MAP.put("04d", "/app/weather/icons/broken_clouds.png"); // Broken clouds
+        ICON_MAP.put("04n", "/app/weather/icons/broken_clouds.png");
+        ICON_MAP.put("09d", "/app/weather/icons/rain.png"); // Shower rain
+        ICON_MAP.put("09n", "/app/weather/icons/rain.png");
+        ICON_MAP.put("10d", "/app/weather/icons/rain.png"); // Rain (day)
+        ICON_MAP.put("10n", "/app/weather/icons/rain.png"); // Rain (night)
+        ICON_MAP.put("11d", "/app/weather/icons/thunderstorm.png"); // Thunderstorm
+        ICON_MAP.put("11n", "/app/weather/icons/thunderstorm.png");
+        ICON_MAP.put("13d", "/app/weather/icons/snow.png"); // Snow
+        ICON_MAP.put("13n", "/app/weather/icons/snow.png");
+        ICON_MAP.put("50d", "/app/weather/icons/mist.png"); // Mist
+        ICON_MAP.put("50n", "/app/weather/icons/mist.png");
+    }
+
+    private static final long DOWNLOAD_TIMEOUT_MS = 2000;
+
+    private final File dir = new File(System.getProperty("user.home"), ".weather_app_icons");
+    // Built off the FX thread: creating an HttpClient sets up TLS, which takes hundreds of ms on a cold JVM
+    private final CompletableFuture<HttpClient> http = CompletableFuture.supplyAsync(HttpClient::newHttpClient);
+    // Keyed by resource path for bundled icons and by icon code for remote ones
+    private final Map<String, Image> localImages = new ConcurrentHashMap<>();
+    private final Map<String, Image> remoteImages = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Image>> downloads = new ConcurrentHashMap<>();
+
+    /**
+     * Resolves the OpenWeather icon for {@code code}, from memory, disk or network in that order.
+     * Completes with null if the download fails or times out; callers fall back to {@link #localIcon}.
+     */
+    public CompletableFuture<Image> remoteIcon(String code) {
+        if (code == null || code.isEmpty()) return CompletableFuture.completedFuture(null);
+        Image cached = remoteImages.get(code);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+
+        // One load per code, however many views ask for it at once
+        CompletableFuture<Image> pending = downloads.computeIfAbsent(code, this::load);
+        pending.whenComplete((img, err) -> downloads.remove(code, pending));
+        return pending;
+    }
+
+    // Callers are on the FX thread, so even the disk copy is read and decoded on an I/O thread
+    private CompletableFuture<Image> load(String code) {
+        File onDisk = new File(dir, code + "@2x.png");
+        return CompletableFuture.supplyAsync(() -> readDisk(code, onDisk), AppIo.shared())
+                .thenCompose(img -> img != null ? CompletableFuture.completedFuture(img) : download(code, onDisk));
+    }
+
+    private Image readDisk(String code, File file) {
+        if (!file.isFile()) return null;
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            Image img = new Image(in);
+            if (img.isError()) return null;
+            remoteImages.put(code, img);
+            return img;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private CompletableFuture<Image> download(String code, File target) {
+        HttpRequest req = HttpRequest.newBuilder(URI.create("https://openweathermap.org/img/wn/" + code + "@2x.png")).GET().build();
+        CompletableFuture<Image> result = new CompletableFuture<>();
+        http.whenComplete((client, clientErr) -> {
+            if (clientErr != null) {
+                result.complete(null);
+                return;
+            }
+            CompletableFuture<HttpResponse<byte[]>> sent = client.sendAsync(req, HttpResponse.BodyHandlers.ofByteArray());
+            // If the timeout settles the result first, abort the request instead of letting it run on
+            result.whenComplete((img, err) -> sent.cancel(true));
+            sent.whenComplete((resp, err) -> {
+                if (err != null || resp.statusCode() != 200) {
+                    result.complete(null);
+                    return;
+                }
+                Image img = new Image(new ByteArrayInputStream(resp.body()));
+                if (img.isError()) {
+                    result.complete(null);
+                    return;
+                }
+                remoteImages.put(code, img);
+                store(target, resp.body());
+                result.complete(img);
+            });
+        });
+        AppScheduler.shared().schedule(() -> result.complete(null), DOWNLOAD_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    private void store(File target, byte[] png) {
+        try {
+            Files.createDirectories(dir.toPath());
+            File tmp = new File(dir, target.getName() + ".tmp");
+            Files.write(tmp.toPath(), png);
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ignored) { }
+    }
+
+    /** Bundled icon matching a condition description, or null if none fits. Decoded once per file. */
+    public Image localIcon(String condition) {
+        String path = localIconPath(condition);
+        return path == null ? null : localImages.computeIfAbsent(path, this::decode);
+    }
+
+    // Map condition to icon if specific icon code is unavailable
+    public static String localIconPath(String condition) {
+        if (condition == null) return null;
+        String condLower = condition.toLowerCase(Locale.ROOT);
+        if (condLower.contains("clear")) {
+            return ICON_MAP.get("01d"); // Use day clear icon as fallback
+        } else if (condLower.contains("cloud")) {
+            return ICON_MAP.get("03d");
+        } else if (condLower.contains("rain") || condLower.contains("shower")) {
+            return ICON_MAP.get("09d");
+        } else if (condLower.contains("thunder")) {
+            return ICON_MAP.get("11d");
+        } else if (condLower.contains("snow")) {
+            return ICON_MAP.get("13d");
+        } else if (condLower.contains("mist") || condLower.contains("fog")) {
+            return ICON_MAP.get("50d");
+        }
+        return null;
+    }
+
+    private Image decode(String path) {
+        try (InputStream in = IconCache.class.getResourceAsStream(path)) {
+            if (in == null) return null;
+            Image img = new Image(in);
+            return img.isError() ? null : img;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
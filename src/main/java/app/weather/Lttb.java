@@ -0,0 +1,55 @@
+package app.weather;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling: picks {@code threshold} points that keep the
+ * visual shape of a series (peaks and troughs survive), always including the first and last.
+ */
+public final class Lttb {
+    private Lttb() { }
+
+    /** Indices of the points to keep, ascending. Returns all indices if {@code threshold >= n}. */
+    public static int[] select(double[] x, double[] y, int threshold) {
+        int n = Math.min(x.length, y.length);
+        if (threshold >= n || threshold < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) all[i] = i;
+            return all;
+        }
+
+        int[] out = new int[threshold];
+        int outIdx = 0;
+        out[outIdx++] = 0;
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+
+        for (int b = 0; b < threshold - 2; b++) {
+            // Average of the next bucket is the third triangle vertex
+            int nextStart = (int) Math.floor((b + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((b + 2) * bucketSize) + 1, n);
+            double avgX = 0, avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x[i];
+                avgY += y[i];
+            }
+            int count = Math.max(1, nextEnd - nextStart);
+            avgX /= count;
+            avgY /= count;
+
+            int start = (int) Math.floor(b * bucketSize) + 1;
+            int end = (int) Math.floor((b + 1) * bucketSize) + 1;
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((x[a] - avgX) * (y[i] - y[a]) - (x[a] - x[i]) * (avgY - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            out[outIdx++] = chosen;
+            a = chosen;
+        }
+        out[outIdx] = n - 1;
+        return out;
+    }
+}
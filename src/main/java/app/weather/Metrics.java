@@ -0,0 +1,146 @@
+package app.weather;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide request and UI timings. Hot paths call {@link Timer#record} with a
+ * {@code System.nanoTime()} start stamp, which only updates atomics. The same numbers are
+ * published over JMX as {@code app.weather:type=Metrics} and shown by {@link DiagnosticsPanel}.
+ */
+public final class Metrics implements MetricsMBean {
+    public static final String OBJECT_NAME = "app.weather:type=Metrics";
+
+    private static final Metrics SHARED = new Metrics();
+
+    /** Latency histogram plus an error counter for one operation. */
+    public static final class Timer {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final AtomicLong errors = new AtomicLong();
+
+        public void record(long startNanos) {
+            histogram.record(System.nanoTime() - startNanos);
+        }
+
+        public void recordNanos(long elapsedNanos) {
+            histogram.record(Math.max(0, elapsedNanos));
+        }
+
+        public void error() {
+            errors.incrementAndGet();
+        }
+
+        public long getCount() { return histogram.getCount(); }
+        public long getErrors() { return errors.get(); }
+        public LatencyHistogram getHistogram() { return histogram; }
+
+        /** Failed calls as a fraction of all calls, 0 when nothing was recorded. */
+        public double errorRate() {
+            long failed = errors.get();
+            long total = failed + histogram.getCount();
+            return total == 0 ? 0 : failed / (double) total;
+        }
+
+        void reset() {
+            histogram.reset();
+            errors.set(0);
+        }
+    }
+
+    // Network round trip plus decode, per endpoint; cache hits are not timed
+    public final Timer weather = new Timer();
+    public final Timer forecast = new Timer();
+    // JSON decode only (includes reading the body off the socket on the streaming path)
+    public final Timer decode = new Timer();
+    // Time spent applying a result to the scene graph on the FX thread
+    public final Timer fxApply = new Timer();
+    // HTTP attempts repeated after a 429, 5xx or connection failure
+    public final AtomicLong retries = new AtomicLong();
+    // Conditional requests answered 304, whose payload was neither downloaded nor parsed
+    public final AtomicLong notModified = new AtomicLong();
+    // UI updates replaced by a newer one for the same part of the screen before their pulse ran
+    public final AtomicLong renderCoalesced = new AtomicLong();
+
+    private volatile ResponseCache<?, ?> weatherCache;
+    private volatile ResponseCache<?, ?> forecastCache;
+    private volatile CircuitBreaker breaker;
+
+    private Metrics() { }
+
+    public static Metrics shared() {
+        return SHARED;
+    }
+
+    /** Reports hit/miss counts for these caches; the most recently created service wins. */
+    void watchCaches(ResponseCache<?, ?> weatherCache, ResponseCache<?, ?> forecastCache) {
+        this.weatherCache = weatherCache;
+        this.forecastCache = forecastCache;
+    }
+
+    void watchBreaker(CircuitBreaker breaker) {
+        this.breaker = breaker;
+    }
+
+    /** Registers the shared instance with the platform MBean server; safe to call more than once. */
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(SHARED, name);
+        } catch (JMException ignored) {
+            // Metrics stay available in-process even if JMX is unavailable
+        }
+    }
+
+    @Override public long getWeatherCount() { return weather.getCount(); }
+    @Override public long getWeatherErrors() { return weather.getErrors(); }
+    @Override public double getWeatherP50Millis() { return millis(weather, 50); }
+    @Override public double getWeatherP99Millis() { return millis(weather, 99); }
+    @Override public double getWeatherMaxMillis() { return weather.histogram.getMax() / 1e6; }
+
+    @Override public long getForecastCount() { return forecast.getCount(); }
+    @Override public long getForecastErrors() { return forecast.getErrors(); }
+    @Override public double getForecastP50Millis() { return millis(forecast, 50); }
+    @Override public double getForecastP99Millis() { return millis(forecast, 99); }
+    @Override public double getForecastMaxMillis() { return forecast.histogram.getMax() / 1e6; }
+
+    @Override public long getDecodeCount() { return decode.getCount(); }
+    @Override public double getDecodeP50Millis() { return millis(decode, 50); }
+    @Override public double getDecodeP99Millis() { return millis(decode, 99); }
+
+    @Override public long getFxApplyCount() { return fxApply.getCount(); }
+    @Override public double getFxApplyP50Millis() { return millis(fxApply, 50); }
+    @Override public double getFxApplyP99Millis() { return millis(fxApply, 99); }
+
+    @Override public long getRenderCoalesced() { return renderCoalesced.get(); }
+
+    @Override public long getHttpRetries() { return retries.get(); }
+    @Override public long getHttpNotModified() { return notModified.get(); }
+    @Override public String getBreakerState() { return breaker == null ? "n/a" : breaker.getState().name(); }
+
+    @Override public long getStageShownMillis() { return StartupTimer.get(StartupTimer.STAGE_SHOWN); }
+    @Override public long getFirstDataMillis() { return StartupTimer.get(StartupTimer.FIRST_DATA); }
+
+    @Override public long getWeatherCacheHits() { return weatherCache == null ? 0 : weatherCache.getHits(); }
+    @Override public long getWeatherCacheMisses() { return weatherCache == null ? 0 : weatherCache.getMisses(); }
+    @Override public long getForecastCacheHits() { return forecastCache == null ? 0 : forecastCache.getHits(); }
+    @Override public long getForecastCacheMisses() { return forecastCache == null ? 0 : forecastCache.getMisses(); }
+
+    @Override
+    public void reset() {
+        weather.reset();
+        forecast.reset();
+        decode.reset();
+        fxApply.reset();
+        retries.set(0);
+        notModified.set(0);
+        renderCoalesced.set(0);
+    }
+
+    private static double millis(Timer timer, double percentile) {
+        return timer.histogram.percentile(percentile) / 1e6;
+    }
+}
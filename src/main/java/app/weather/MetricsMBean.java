@@ -0,0 +1,40 @@
+package app.weather;
+
+// JMX view of Metrics; latencies are in milliseconds and cumulative since start or the last reset()
+public interface MetricsMBean {
+    long getWeatherCount();
+    long getWeatherErrors();
+    double getWeatherP50Millis();
+    double getWeatherP99Millis();
+    double getWeatherMaxMillis();
+
+    long getForecastCount();
+    long getForecastErrors();
+    double getForecastP50Millis();
+    double getForecastP99Millis();
+    double getForecastMaxMillis();
+
+    long getDecodeCount();
+    double getDecodeP50Millis();
+    double getDecodeP99Millis();
+
+    long getFxApplyCount();
+    double getFxApplyP50Millis();
+    double getFxApplyP99Millis();
+    long getRenderCoalesced();
+
+    long getHttpRetries();
+    long getHttpNotModified();
+    String getBreakerState();
+
+    // Milliseconds from JVM start, -1 until reached
+    long getStageShownMillis();
+    long getFirstDataMillis();
+
+    long getWeatherCacheHits();
+    long getWeatherCacheMisses();
+    long getForecastCacheHits();
+    long getForecastCacheMisses();
+
+    void reset();
+}
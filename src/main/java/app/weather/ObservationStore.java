@@ -0,0 +1,210 @@
+package app.weather;
+
+import app.weather.model.ObservationSeries;
+import app.weather.model.WeatherData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Append-only history of observed conditions, one file per UTC day ({@code 2024-05-01.obs}).
+ * A segment is an 8-byte header ({@code "WOB1"}, record size) followed by fixed 32-byte records:
+ * {@code long cityId, long epoch, float temp, float feelsLike, float wind, short humidity,
+ * short conditionCode}, in append order. Appends from all threads share one write on an
+ * {@link AppIo} thread, and files are opened in append mode, so the app and the CLI can record into
+ * the same directory. A record torn by a crash is ignored by readers and cut off by the next append.
+ * Queries map the segments of the requested days read-only and scan the city id column, so months
+ * of history are read through the page cache without being copied onto the heap; only the
+ * matching records are.
+ */
+public class ObservationStore {
+    private static final int MAGIC = 0x574F4231; // "WOB1"
+    private static final int HEADER_BYTES = 8;
+    static final int RECORD_BYTES = 32;
+    private static final String SUFFIX = ".obs";
+    // Mappings kept between queries; a month-long chart uses about 30
+    private static final int MAX_MAPPED = 64;
+
+    private final Path dir;
+    private final long retentionDays;
+    // Guarded by this
+    private final List<Pending> pending = new ArrayList<>();
+    private final Map<Long, Long> lastEpoch = new HashMap<>();
+    private boolean writeQueued = false;
+    // Held while writing, so appends never wait on the disk
+    private final Object writeLock = new Object();
+    private boolean pruned = false;
+    // Guarded by itself; remapped when the file has grown since it was mapped
+    private final LinkedHashMap<LocalDate, MappedByteBuffer> mapped = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LocalDate, MappedByteBuffer> eldest) {
+            return size() > MAX_MAPPED;
+        }
+    };
+
+    private static final class Pending {
+        final long cityId;
+        final WeatherData data;
+
+        Pending(long cityId, WeatherData data) {
+            this.cityId = cityId;
+            this.data = data;
+        }
+    }
+
+    /** @param dir where segments are kept, or null to record nothing */
+    public ObservationStore(Path dir, long retentionDays) {
+        this.dir = dir;
+        this.retentionDays = retentionDays;
+    }
+
+    public static ObservationStore fromConfig(Properties props) {
+        String dir = props.getProperty("OBSERVATION_DIR",
+                new File(System.getProperty("user.home"), ".weather_app_observations").getPath()).trim();
+        return new ObservationStore(dir.isEmpty() ? null : Path.of(dir), Config.getLong(props, "OBSERVATION_RETENTION_DAYS", 730));
+    }
+
+    /**
+     * Records an observation; does nothing without an id or an observation time, or if this
+     * city's observation at that time was already recorded by this process.
+     */
+    public synchronized void append(long cityId, WeatherData data) {
+        if (dir == null || cityId <= 0 || data.getObservedAt() <= 0) return;
+        Long last = lastEpoch.get(cityId);
+        if (last != null && last >= data.getObservedAt()) return; // cache hit or unchanged upstream data
+        lastEpoch.put(cityId, data.getObservedAt());
+        pending.add(new Pending(cityId, data));
+        // A batch refresh records many cities at once; they share one write on an I/O thread
+        if (!writeQueued) {
+            writeQueued = true;
+            AppIo.shared().execute(this::flush);
+        }
+    }
+
+    /** Writes pending records now; short-lived tools call this before exiting. */
+    public void flush() {
+        List<Pending> batch;
+        synchronized (this) {
+            writeQueued = false;
+            if (pending.isEmpty()) return;
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+        write(batch);
+    }
+
+    /** Observations of {@code cityId} with {@code from <= epoch < to} (epoch seconds), oldest first. */
+    public ObservationSeries query(long cityId, long from, long to) throws IOException {
+        if (dir == null || from >= to) return ObservationSeries.empty();
+        flush();
+        ObservationSeries.Builder out = new ObservationSeries.Builder(64);
+        for (LocalDate day = day(from), last = day(to - 1); !day.isAfter(last); day = day.plusDays(1)) {
+            MappedByteBuffer buf = segment(day);
+            if (buf == null) continue;
+            int end = HEADER_BYTES + (buf.limit() - HEADER_BYTES) / RECORD_BYTES * RECORD_BYTES;
+            for (int pos = HEADER_BYTES; pos < end; pos += RECORD_BYTES) {
+                if (buf.getLong(pos) != cityId) continue;
+                long epoch = buf.getLong(pos + 8);
+                if (epoch < from || epoch >= to) continue;
+                out.add(epoch, buf.getFloat(pos + 16), buf.getFloat(pos + 20), buf.getFloat(pos + 24),
+                        buf.getShort(pos + 28), buf.getShort(pos + 30));
+            }
+        }
+        return out.build();
+    }
+
+    private MappedByteBuffer segment(LocalDate day) throws IOException {
+        Path file = file(day);
+        if (!Files.isRegularFile(file)) return null;
+        long size = Files.size(file);
+        if (size < HEADER_BYTES) return null;
+        synchronized (mapped) {
+            MappedByteBuffer buf = mapped.get(day);
+            // Past days are complete; today's segment (or a late observation) makes the file longer
+            if (buf != null && buf.limit() == size) return buf;
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+            }
+            if (buf.getInt(0) != MAGIC || buf.getInt(4) != RECORD_BYTES) return null;
+            mapped.put(day, buf);
+            return buf;
+        }
+    }
+
+    // I/O thread, or a caller of flush; one writer at a time
+    private void write(List<Pending> batch) {
+        synchronized (writeLock) {
+            try {
+                Files.createDirectories(dir);
+                if (!pruned) {
+                    pruned = true;
+                    prune();
+                }
+                Map<LocalDate, ByteBuffer> byDay = new LinkedHashMap<>();
+                for (Pending p : batch) {
+                    LocalDate day = day(p.data.getObservedAt());
+                    ByteBuffer buf = byDay.computeIfAbsent(day, d -> ByteBuffer.allocate(batch.size() * RECORD_BYTES));
+                    WeatherData d = p.data;
+                    buf.putLong(p.cityId).putLong(d.getObservedAt())
+                            .putFloat((float) d.getTemperature()).putFloat((float) d.getFeelsLike()).putFloat((float) d.getWind())
+                            .putShort((short) d.getHumidity()).putShort((short) d.getConditionCode());
+                }
+                for (Map.Entry<LocalDate, ByteBuffer> e : byDay.entrySet()) {
+                    append(file(e.getKey()), e.getValue().flip());
+                }
+            } catch (IOException ignored) {
+                // History is best effort; the fetch that produced it already succeeded
+            }
+        }
+    }
+
+    private static void append(Path file, ByteBuffer records) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long size = ch.size();
+            if (size == 0) {
+                ch.write(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(RECORD_BYTES).flip());
+            } else if ((size - HEADER_BYTES) % RECORD_BYTES != 0) {
+                // A torn record from an interrupted write; drop it so later records stay aligned
+                ch.truncate(size - (size - HEADER_BYTES) % RECORD_BYTES);
+            }
+            while (records.hasRemaining()) ch.write(records);
+        }
+    }
+
+    private void prune() throws IOException {
+        if (retentionDays <= 0) return;
+        LocalDate oldest = LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays);
+        try (var files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                try {
+                    if (LocalDate.parse(name.substring(0, name.length() - SUFFIX.length())).isBefore(oldest)) Files.deleteIfExists(f);
+                } catch (RuntimeException ignored) {
+                    // not a segment
+                }
+            }
+        }
+    }
+
+    private Path file(LocalDate day) {
+        return dir.resolve(day + SUFFIX);
+    }
+
+    private static LocalDate day(long epochSecond) {
+        return LocalDate.ofEpochDay(Math.floorDiv(epochSecond, 86400));
+    }
+}
@@ -0,0 +1,55 @@
+package app.weather;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket: holds up to {@code capacity} permits and refills at a fixed rate.
+ * Callers that find the bucket empty reserve a future permit and wait for it, so
+ * requests are spaced out evenly instead of failing.
+ */
+public class RateLimiter {
+
+    private final double capacity;
+    private final double permitsPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    public RateLimiter(int permits, long period, TimeUnit unit) {
+        if (permits <= 0) throw new IllegalArgumentException("permits must be positive");
+        this.capacity = permits;
+        this.permitsPerNano = permits / (double) unit.toNanos(period);
+        this.tokens = permits;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public static RateLimiter perMinute(int permits) {
+        return new RateLimiter(permits, 1, TimeUnit.MINUTES);
+    }
+
+    /** Takes one permit and returns how many nanoseconds the caller must wait before using it. */
+    public synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+        tokens -= 1;
+        // A negative balance is a queue of reservations; each waits until its token has refilled
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+    }
+
+    /** Blocks until a permit is available; a caller interrupted while waiting gives its permit back. */
+    public void acquire() throws InterruptedException {
+        long wait = reserve();
+        if (wait <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException ex) {
+            refund();
+            throw ex;
+        }
+    }
+
+    /** Returns a permit taken by {@link #reserve} that will not be used, so it does not push back later callers. */
+    public synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+}
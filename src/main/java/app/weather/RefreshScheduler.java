@@ -0,0 +1,156 @@
+package app.weather;
+
+import app.weather.model.WeatherData;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background refresh of watched cities, driven by timers on the shared {@link AppScheduler}
+ * thread; the fetches themselves are async, so that thread never waits on the network.
+ * Each city's next refresh is planned from the observation time ("dt") of its latest data:
+ * shortly after the next observation is expected, using the gap seen between observations.
+ * While the data does not change, or calls fail, it backs off: the minimum delay, doubled
+ * per consecutive miss, up to the maximum.
+ * Every delay is stretched by a random 0-20% so cities watched together spread out over time;
+ * jitter never moves a refresh earlier than planned.
+ * Refreshes go through {@link WeatherService#refreshWeatherAsync}, so they are conditional
+ * requests when the API sends validators.
+ */
+public class RefreshScheduler {
+
+    public interface Listener {
+        /** New observation for the city; called on an HTTP client thread. */
+        void onUpdate(String city, WeatherData data);
+
+        default void onError(String city, Throwable error) { }
+    }
+
+    // Wait past the expected observation time, since the API publishes with some lag: a fifth of the period, at most this
+    private static final long GRACE_SECONDS = 60;
+
+    private final WeatherService service;
+    private final long minMillis;
+    private final long maxMillis;
+    private final long defaultPeriodSeconds;
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+
+    private final class Watch {
+        final String city;
+        final Listener listener;
+        long observedAt;
+        long periodSeconds = defaultPeriodSeconds;
+        int misses;
+        ScheduledFuture<?> next;
+        volatile boolean cancelled;
+
+        Watch(String city, Listener listener) {
+            this.city = city;
+            this.listener = listener;
+        }
+    }
+
+    public RefreshScheduler(WeatherService service, Properties props) {
+        this.service = service;
+        minMillis = Math.max(1, Config.getLong(props, "REFRESH_MIN_SECONDS", 120)) * 1000;
+        maxMillis = Math.max(minMillis / 1000, Config.getLong(props, "REFRESH_MAX_SECONDS", 3600)) * 1000;
+        // OpenWeather updates current conditions about every 10 minutes
+        defaultPeriodSeconds = Math.max(1, Config.getLong(props, "REFRESH_DEFAULT_PERIOD_SECONDS", 600));
+    }
+
+    /**
+     * Starts refreshing {@code city}, or replaces its listener if it is already watched.
+     * {@code latest} is the data just shown, if any, so the first refresh can be planned from it.
+     */
+    public void watch(String city, WeatherData latest, Listener listener) {
+        Watch w = new Watch(city, listener);
+        Watch old = watches.put(WeatherService.normalize(city), w);
+        if (old != null) {
+            cancel(old);
+            w.observedAt = old.observedAt;
+            w.periodSeconds = old.periodSeconds;
+        }
+        if (latest != null && latest.getObservedAt() > w.observedAt) w.observedAt = latest.getObservedAt();
+        schedule(w, w.observedAt > 0 ? untilNextObservation(w) : minMillis);
+    }
+
+    public void unwatch(String city) {
+        Watch w = watches.remove(WeatherService.normalize(city));
+        if (w != null) cancel(w);
+    }
+
+    public void unwatchAll() {
+        for (String key : watches.keySet()) {
+            Watch w = watches.remove(key);
+            if (w != null) cancel(w);
+        }
+    }
+
+    public int size() { return watches.size(); }
+
+    private void refresh(Watch w) {
+        if (w.cancelled) return;
+        service.refreshWeatherAsync(w.city).whenComplete((data, err) -> {
+            if (w.cancelled) return;
+            if (err != null) {
+                Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+                // The breaker knows when calls may go through again; otherwise back off
+                long delay = cause instanceof CircuitOpenException open
+                        ? Math.max(minMillis, open.getRetryAfterMillis()) : backoff(w);
+                schedule(w, delay);
+                w.listener.onError(w.city, cause);
+                return;
+            }
+            long dt = data.getObservedAt();
+            if (dt > 0 && dt <= w.observedAt) {
+                schedule(w, backoff(w)); // nothing new upstream yet
+                return;
+            }
+            w.misses = 0;
+            if (dt > 0) {
+                // The gap between the last two observations is the best guess for the next one; a gap
+                // that spans several observations (we were backing off) only doubles the estimate
+                if (w.observedAt > 0) w.periodSeconds = clamp(Math.min(dt - w.observedAt, w.periodSeconds * 2) * 1000) / 1000;
+                w.observedAt = dt;
+                schedule(w, untilNextObservation(w));
+            } else {
+                schedule(w, clamp(defaultPeriodSeconds * 1000)); // no timestamp to plan from
+            }
+            w.listener.onUpdate(w.city, data);
+        });
+    }
+
+    private long untilNextObservation(Watch w) {
+        long due = (w.observedAt + w.periodSeconds + Math.min(GRACE_SECONDS, w.periodSeconds / 5)) * 1000;
+        return clamp(due - System.currentTimeMillis());
+    }
+
+    private long backoff(Watch w) {
+        w.misses = Math.min(w.misses + 1, 20);
+        return clamp(minMillis << (w.misses - 1));
+    }
+
+    private long clamp(long millis) {
+        return Math.max(minMillis, Math.min(maxMillis, millis));
+    }
+
+    private void schedule(Watch w, long delayMillis) {
+        long jittered = delayMillis + ThreadLocalRandom.current().nextLong(delayMillis / 5 + 1);
+        synchronized (w) {
+            if (w.cancelled) return;
+            w.next = AppScheduler.shared().schedule(() -> refresh(w), jittered, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void cancel(Watch w) {
+        synchronized (w) {
+            w.cancelled = true;
+            if (w.next != null) w.next.cancel(false);
+        }
+    }
+}
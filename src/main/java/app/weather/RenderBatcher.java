@@ -0,0 +1,91 @@
+package app.weather;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces scene-graph updates into one FX-thread pass per pulse. Work is queued from any thread
+ * under a key naming the part of the screen it writes; queuing again under a key that is still
+ * pending replaces the earlier work, so a burst of results is applied once, with the newest data.
+ * The queue is drained from an {@link AnimationTimer}, at the start of the pulse that lays out and
+ * renders the scene, and the timer stops again once nothing is pending.
+ * As an {@link Executor} it runs plain tasks in the same pass, in submission order.
+ */
+public class RenderBatcher implements Executor {
+    private final Metrics.Timer fxApply;
+    private final AtomicLong coalesced;
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flush();
+        }
+    };
+    // Guarded by this; iteration order is apply order
+    private LinkedHashMap<Object, Runnable> pending = new LinkedHashMap<>();
+    private boolean armed = false;
+
+    public RenderBatcher() {
+        this(Metrics.shared().fxApply, Metrics.shared().renderCoalesced);
+    }
+
+    RenderBatcher(Metrics.Timer fxApply, AtomicLong coalesced) {
+        this.fxApply = fxApply;
+        this.coalesced = coalesced;
+    }
+
+    /** Applies {@code work} on the next pulse, replacing any work still pending under {@code key}. */
+    public void submit(Object key, Runnable work) {
+        boolean start;
+        synchronized (this) {
+            // Re-queued work moves to the end, so it still runs after anything submitted before it
+            if (pending.remove(key) != null) coalesced.incrementAndGet();
+            pending.put(key, work);
+            start = !armed;
+            armed = true;
+        }
+        if (!start) return;
+        if (Platform.isFxApplicationThread()) {
+            pulse.start();
+        } else {
+            Platform.runLater(pulse::start);
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        submit(new Object(), task);
+    }
+
+    /** Applies everything pending now; FX thread only. */
+    public void flush() {
+        LinkedHashMap<Object, Runnable> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        if (!batch.isEmpty()) {
+            long start = System.nanoTime();
+            for (Runnable work : batch.values()) {
+                try {
+                    work.run();
+                } catch (RuntimeException ex) {
+                    // One failed update must not drop the rest of the batch
+                    Thread t = Thread.currentThread();
+                    t.getUncaughtExceptionHandler().uncaughtException(t, ex);
+                }
+            }
+            fxApply.record(start);
+        }
+        synchronized (this) {
+            // Work queued while this batch ran keeps the timer going for the next pulse
+            if (pending.isEmpty()) {
+                armed = false;
+                pulse.stop();
+            }
+        }
+    }
+}
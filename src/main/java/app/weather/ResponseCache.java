@@ -0,0 +1,216 @@
+package app.weather;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache with a time-to-live per entry and least-recently-used eviction.
+ * Concurrent loads of the same key share one in-flight call (single-flight), so a burst of
+ * identical requests only reaches the network once.
+ */
+public class ResponseCache<K, V> {
+
+    public interface Loader<V> {
+        V load() throws Exception;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<K, Entry<V>> entries;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ResponseCache(long ttlMillis, int maxEntries) {
+        this.ttlNanos = Math.max(0, ttlMillis) * 1_000_000L;
+        this.maxEntries = Math.max(1, maxEntries);
+        // Access-ordered map: iteration starts at the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ResponseCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Returns the cached value for {@code key}, or runs {@code loader} once for all concurrent callers. */
+    public V get(K key, Loader<V> loader) throws Exception {
+        V cached = lookup(key);
+        if (cached != null) return cached;
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> shared;
+        while ((shared = inFlight.putIfAbsent(key, mine)) != null) {
+            try {
+                return join(shared);
+            } catch (LoaderAbandonedException ex) {
+                // The caller running the load was cancelled, not this request; take over the load
+                inFlight.remove(key, shared);
+            }
+        }
+
+        try {
+            V value = loader.load();
+            put(key, value);
+            mine.complete(value);
+            return value;
+        } catch (Exception ex) {
+            boolean interrupted = ex instanceof InterruptedException || Thread.currentThread().isInterrupted();
+            mine.completeExceptionally(interrupted ? new LoaderAbandonedException() : ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Async variant of {@link #get}: callers for the same key share one in-flight load. Each gets its
+     * own dependent future, so one caller cancelling (a superseded request) affects no other.
+     */
+    public CompletableFuture<V> getAsync(K key, Supplier<CompletableFuture<V>> loader) {
+        V cached = lookup(key);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> shared = inFlight.putIfAbsent(key, mine);
+        if (shared != null) return shared.copy();
+
+        CompletableFuture<V> source;
+        try {
+            source = loader.get();
+        } catch (RuntimeException ex) {
+            source = CompletableFuture.failedFuture(ex);
+        }
+        source.whenComplete((value, err) -> {
+            if (err == null) put(key, value);
+            inFlight.remove(key, mine);
+            if (err != null) mine.completeExceptionally(unwrap(err));
+            else mine.complete(value);
+        });
+        return mine.copy();
+    }
+
+    /** Returns a fresh cached value without loading, or null; counts as a hit or a miss. */
+    public V getIfPresent(K key) {
+        return lookup(key);
+    }
+
+    /** True if a fresh value is cached; unlike getIfPresent it is not counted as a hit or a miss. */
+    public boolean containsFresh(K key) {
+        synchronized (entries) {
+            Entry<V> e = entries.get(key);
+            return e != null && System.nanoTime() - e.expiresAt < 0;
+        }
+    }
+
+    public void put(K key, V value) {
+        if (value == null) return;
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /** Drops expired entries; they would otherwise only be removed when looked up or evicted. */
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Iterator<Entry<V>> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (now - it.next().expiresAt >= 0) {
+                    it.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+
+    @Override
+    public String toString() {
+        return String.format("ResponseCache[size=%d, hits=%d, misses=%d, evictions=%d]",
+                size(), getHits(), getMisses(), getEvictions());
+    }
+
+    private V lookup(K key) {
+        synchronized (entries) {
+            Entry<V> e = entries.get(key);
+            if (e != null) {
+                if (System.nanoTime() - e.expiresAt < 0) {
+                    hits.incrementAndGet();
+                    return e.value;
+                }
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    // Signals waiters that the loading thread was interrupted, so one of them should retry
+    private static final class LoaderAbandonedException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        LoaderAbandonedException() {
+            super("Loading caller was interrupted", null, false, false);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception e) throw e;
+            throw ex;
+        }
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        return (t instanceof CompletionException && t.getCause() != null) ? t.getCause() : t;
+    }
+}
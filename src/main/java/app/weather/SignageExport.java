@@ -0,0 +1,300 @@
+package app.weather;
+
+import app.weather.model.Units;
+import app.weather.model.WeatherData;
+import app.weather.model.WeatherSnapshot;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static app.weather.CliArgs.readCities;
+import static app.weather.CliArgs.value;
+
+/**
+ * Renders a weather card per city offscreen and writes them as PNG files, e.g. for signage.
+ * Cities are fetched with {@link BatchFetcher}; each card is captured on the FX thread as soon as
+ * its data and icon are in, into one of a few reusable images, and encoded by the
+ * {@link SnapshotExporter} pool while the next cards are captured. When every image is waiting to
+ * be encoded, capture pauses, so memory stays bounded however many cities there are.
+ *
+ * <pre>
+ * SignageExport [--out dir] [--size 800x480] [--imperial] [--concurrency N] [--every MINUTES] [--file cities.txt|-] [city ...]
+ * </pre>
+ * With {@code --every}, the export repeats until the process is stopped; unchanged data is then
+ * served from the cache or answered 304.
+ */
+public class SignageExport {
+    private static final String USAGE =
+            "Usage: SignageExport [--out dir] [--size WxH] [--imperial] [--concurrency N] [--every MINUTES] [--file cities.txt|-] [city ...]";
+    private static final DateTimeFormatter UPDATED = DateTimeFormatter.ofPattern("EEE d MMM HH:mm");
+
+    public static class ExportReport {
+        private final int written;
+        private final int failed;
+        private final long elapsedMillis;
+        private final long captureNanos;
+
+        ExportReport(int written, int failed, long elapsedMillis, long captureNanos) {
+            this.written = written;
+            this.failed = failed;
+            this.elapsedMillis = elapsedMillis;
+            this.captureNanos = captureNanos;
+        }
+
+        public int getWritten() { return written; }
+        public int getFailed() { return failed; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        public double getImagesPerSecond() {
+            return elapsedMillis == 0 ? 0 : written * 1000.0 / elapsedMillis;
+        }
+
+        // FX-thread time per image: the capture is the only part of an export that runs there
+        public double getCaptureMillisPerImage() {
+            return written == 0 ? 0 : captureNanos / 1e6 / written;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d images, %d failed in %d ms (%.1f images/s); FX capture %.2f ms/image",
+                    written, failed, elapsedMillis, getImagesPerSecond(), getCaptureMillisPerImage());
+        }
+    }
+
+    private final WeatherService service;
+    private final SnapshotExporter exporter;
+    private final IconCache icons = new IconCache();
+    private final Path dir;
+    private final int width;
+    private final int height;
+    private final Units units;
+    private final int buffers;
+
+    // FX thread only
+    private Card card;
+    private final ArrayDeque<WritableImage> free = new ArrayDeque<>();
+    private final ArrayDeque<Runnable> waiting = new ArrayDeque<>();
+
+    public SignageExport(WeatherService service, SnapshotExporter exporter, int exportThreads,
+                         Path dir, int width, int height, Units units) {
+        this.service = service;
+        this.exporter = exporter;
+        this.dir = dir;
+        this.width = width;
+        this.height = height;
+        this.units = units;
+        // Enough images to keep every encoder busy while the FX thread captures the next ones
+        this.buffers = exportThreads * 2;
+    }
+
+    /** Fetches, renders and writes every city, blocking until all files are written. Needs a running FX toolkit. */
+    public ExportReport run(List<String> cities, int concurrency) throws InterruptedException {
+        long started = System.nanoTime();
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong captureNanos = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(cities.size());
+
+        new BatchFetcher(service, concurrency).fetchAll(cities, 0, r -> {
+            if (!r.isSuccess()) {
+                System.err.println(r.getCity() + ": " + r.getError().getMessage());
+                failed.incrementAndGet();
+                done.countDown();
+                return;
+            }
+            WeatherSnapshot snapshot = r.getSnapshot();
+            Path file = dir.resolve(fileName(r.getCity()));
+            icons.remoteIcon(snapshot.getCurrent().getIcon()).thenAccept(icon -> Platform.runLater(() -> {
+                waiting.add(() -> {
+                    long start = System.nanoTime();
+                    WritableImage reuse = free.poll();
+                    WritableImage image;
+                    try {
+                        image = card.capture(snapshot, icon, reuse);
+                    } catch (RuntimeException ex) {
+                        if (reuse != null) free.add(reuse);
+                        System.err.println(r.getCity() + ": " + ex.getMessage());
+                        failed.incrementAndGet();
+                        done.countDown();
+                        return;
+                    }
+                    captureNanos.addAndGet(System.nanoTime() - start);
+                    exporter.export(image, file).whenComplete((path, err) -> {
+                        if (err != null) {
+                            Throwable cause = err.getCause() != null ? err.getCause() : err;
+                            System.err.println(r.getCity() + ": " + cause.getMessage());
+                            failed.incrementAndGet();
+                        } else {
+                            written.incrementAndGet();
+                        }
+                        done.countDown();
+                        Platform.runLater(() -> {
+                            free.add(image);
+                            pump();
+                        });
+                    });
+                });
+                pump();
+            }));
+        });
+        done.await();
+        return new ExportReport(written.get(), failed.get(), (System.nanoTime() - started) / 1_000_000, captureNanos.get());
+    }
+
+    // Captures waiting cards while an image is free (or may still be created); FX thread only
+    private void pump() {
+        if (card == null) card = new Card(width, height);
+        while (!waiting.isEmpty() && (!free.isEmpty() || card.created < buffers)) {
+            waiting.poll().run();
+        }
+    }
+
+    static String fileName(String city) {
+        String slug = CityNameIndex.fold(city).replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+        return (slug.isEmpty() ? "city" : slug) + ".png";
+    }
+
+    // One offscreen scene, refilled per city; FX thread only
+    private final class Card {
+        private final VBox root = new VBox(12);
+        private final Label city = new Label();
+        private final Label temp = new Label();
+        private final Label condition = new Label();
+        private final Label details = new Label();
+        private final Label updated = new Label();
+        private final ImageView icon = new ImageView();
+        private final int width;
+        private final int height;
+        private int created = 0;
+        private int period = -1;
+
+        Card(int width, int height) {
+            this.width = width;
+            this.height = height;
+            double scale = height / 480.0;
+            city.setFont(Font.font(null, FontWeight.BOLD, 40 * scale));
+            temp.setFont(Font.font(null, FontWeight.BOLD, 96 * scale));
+            condition.setFont(Font.font(32 * scale));
+            details.setFont(Font.font(24 * scale));
+            updated.setFont(Font.font(18 * scale));
+            for (Label l : List.of(city, temp, condition, details, updated)) l.setTextFill(Color.web("#1B2631"));
+            icon.setFitWidth(128 * scale);
+            icon.setFitHeight(128 * scale);
+            icon.setSmooth(true);
+            HBox main = new HBox(24 * scale, icon, temp);
+            main.setAlignment(Pos.CENTER_LEFT);
+            root.getChildren().addAll(city, main, condition, details, updated);
+            root.setPadding(new Insets(32 * scale));
+            root.setAlignment(Pos.TOP_LEFT);
+            new Scene(root, width, height);
+        }
+
+        WritableImage capture(WeatherSnapshot snapshot, Image remoteIcon, WritableImage reuse) {
+            WeatherData d = snapshot.getCurrent();
+            city.setText(snapshot.getCity());
+            temp.setText(String.format("%.0f%s", units.temperature(d.getTemperature()), units.getTemperatureSymbol()));
+            condition.setText(d.getCondition());
+            details.setText(String.format("Feels like %.0f°   Humidity %d%%   Wind %.1f %s",
+                    units.temperature(d.getFeelsLike()), d.getHumidity(), units.windSpeed(d.getWind()), units.getWindLabel()));
+            updated.setText("Updated " + LocalDateTime.now().format(UPDATED));
+            icon.setImage(remoteIcon != null ? remoteIcon : icons.localIcon(d.getCondition()));
+            int p = WeatherApp.dayPeriod(LocalDateTime.now().getHour());
+            if (p != period) {
+                period = p;
+                root.setBackground(WeatherApp.BACKGROUNDS[p]);
+            }
+            if (reuse == null) {
+                reuse = new WritableImage(width, height);
+                created++;
+            }
+            return root.snapshot(null, reuse);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Path.of("signage");
+        int width = 800, height = 480;
+        Units units = Units.METRIC;
+        int concurrency = 8;
+        long everyMinutes = 0;
+        List<String> cities = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--out" -> dir = Path.of(value(args, ++i));
+                    case "--size" -> {
+                        String[] wh = value(args, ++i).toLowerCase().split("x");
+                        if (wh.length != 2) throw new IllegalArgumentException("--size must be WIDTHxHEIGHT");
+                        width = Integer.parseInt(wh[0]);
+                        height = Integer.parseInt(wh[1]);
+                    }
+                    case "--imperial" -> units = Units.IMPERIAL;
+                    case "--concurrency" -> concurrency = Integer.parseInt(value(args, ++i));
+                    case "--every" -> everyMinutes = Long.parseLong(value(args, ++i));
+                    case "--file" -> cities.addAll(readCities(value(args, ++i)));
+                    case "-h", "--help" -> {
+                        System.out.println(USAGE);
+                        return;
+                    }
+                    default -> {
+                        if (args[i].startsWith("--")) throw new IllegalArgumentException("Unknown option " + args[i]);
+                        cities.add(args[i]);
+                    }
+                }
+            }
+            if (cities.isEmpty()) throw new IllegalArgumentException("No cities given");
+            if (width <= 0 || height <= 0) throw new IllegalArgumentException("--size must be positive");
+            if (concurrency <= 0) throw new IllegalArgumentException("--concurrency must be positive");
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        // Offscreen rendering still needs the toolkit, but no window is ever shown
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        Platform.setImplicitExit(false);
+        started.await();
+
+        int threads = Config.getInt(Config.load(), "EXPORT_THREADS", Math.min(4, Runtime.getRuntime().availableProcessors()));
+        WeatherService service = new WeatherService();
+        int status;
+        try (SnapshotExporter exporter = new SnapshotExporter(threads)) {
+            SignageExport export = new SignageExport(service, exporter, threads, dir, width, height, units);
+            while (true) {
+                ExportReport report = export.run(cities, concurrency);
+                service.getCityIndex().flush();
+                service.getObservations().flush();
+                System.err.println(report + " -> " + dir.toAbsolutePath());
+                status = report.getFailed() == 0 ? 0 : 1;
+                if (everyMinutes <= 0) break;
+                TimeUnit.MINUTES.sleep(everyMinutes);
+            }
+        }
+        Platform.exit();
+        System.exit(status);
+    }
+}
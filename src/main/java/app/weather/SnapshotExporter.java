@@ -0,0 +1,74 @@
+package app.weather;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes captured images as PNG files on a small pool of background threads, so the FX thread
+ * only takes the snapshot. Each pool thread keeps one ARGB buffer and copies pixels straight
+ * into its backing array; exports of the same size (a batch of cards, repeated window saves)
+ * allocate nothing per image. Files are written to a temporary name and moved into place.
+ */
+public class SnapshotExporter implements AutoCloseable {
+    private final ExecutorService pool;
+    private final ThreadLocal<BufferedImage> buffer = new ThreadLocal<>();
+
+    public SnapshotExporter(int threads) {
+        AtomicInteger n = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "snapshot-export-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Encodes {@code image} to {@code file} in the background; the image must not change until this completes. */
+    public CompletableFuture<Path> export(Image image, Path file) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                write(image, file);
+                return file;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, pool);
+    }
+
+    private void write(Image image, Path file) throws IOException {
+        int w = (int) image.getWidth();
+        int h = (int) image.getHeight();
+        BufferedImage argb = buffer.get();
+        if (argb == null || argb.getWidth() != w || argb.getHeight() != h) {
+            argb = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            buffer.set(argb);
+        }
+        int[] pixels = ((DataBufferInt) argb.getRaster().getDataBuffer()).getData();
+        image.getPixelReader().getPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), pixels, 0, w);
+
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        File tmp = new File(file.toAbsolutePath() + ".tmp");
+        // Writing to a File seeks in place; a plain OutputStream would be staged through ImageIO's disk cache
+        if (!ImageIO.write(argb, "png", tmp)) throw new IOException("No PNG writer available");
+        Files.move(tmp.toPath(), file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
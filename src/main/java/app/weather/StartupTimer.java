@@ -0,0 +1,39 @@
+package app.weather;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Startup phase timestamps in milliseconds since JVM start. Each phase is recorded and logged
+ * to stderr the first time it is reached; the stage-shown and first-data times are also
+ * published through {@link Metrics}.
+ */
+public final class StartupTimer {
+    public static final String MAIN = "main";
+    public static final String UI_BUILT = "ui built";
+    public static final String STAGE_SHOWN = "stage shown";
+    public static final String FIRST_DATA = "first data";
+
+    // ProcessHandle avoids pulling in java.management this early; its resolution is ~10 ms
+    private static final long JVM_START = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli).orElseGet(System::currentTimeMillis);
+    private static final Map<String, Long> PHASES = new LinkedHashMap<>();
+
+    private StartupTimer() { }
+
+    public static void mark(String phase) {
+        long at = System.currentTimeMillis() - JVM_START;
+        synchronized (PHASES) {
+            if (PHASES.putIfAbsent(phase, at) != null) return;
+        }
+        System.err.println("startup: " + phase + " at " + at + " ms");
+    }
+
+    /** Milliseconds from JVM start to {@code phase}, or -1 if it has not been reached. */
+    public static long get(String phase) {
+        synchronized (PHASES) {
+            return PHASES.getOrDefault(phase, -1L);
+        }
+    }
+}
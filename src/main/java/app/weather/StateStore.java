@@ -0,0 +1,176 @@
+package app.weather;
+
+import app.weather.model.ForecastEntry;
+import app.weather.model.ForecastSeries;
+import app.weather.model.WeatherData;
+import app.weather.model.WeatherSnapshot;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Last known weather for recently viewed cities, kept in a small binary file next to the
+ * history file so the app can paint immediately on launch (and offline) while it revalidates.
+ * Entries older than the configured age are reported as stale but still served.
+ */
+public class StateStore {
+    private static final int MAGIC = 0x57535432; // "WST2"
+    private static final int DEFAULT_MAX_CITIES = 10;
+    private static final long DEFAULT_MAX_AGE_MINUTES = 30;
+
+    public static class Entry {
+        private final WeatherSnapshot snapshot;
+        private final long savedAt;
+        private final long maxAgeMillis;
+
+        Entry(WeatherSnapshot snapshot, long savedAt, long maxAgeMillis) {
+            this.snapshot = snapshot;
+            this.savedAt = savedAt;
+            this.maxAgeMillis = maxAgeMillis;
+        }
+
+        public WeatherSnapshot getSnapshot() { return snapshot; }
+        public long getSavedAt() { return savedAt; }
+
+        public boolean isStale() {
+            return System.currentTimeMillis() - savedAt > maxAgeMillis;
+        }
+    }
+
+    private final File file = new File(System.getProperty("user.home"), ".weather_app_state.bin");
+    private final int maxCities;
+    private final long maxAgeMillis;
+    // Keyed by normalized city, least recently saved first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private boolean loaded = false;
+    private boolean writeQueued = false;
+    // Held while writing, so get() and save() on the FX thread never wait on the disk
+    private final Object writeLock = new Object();
+
+    public StateStore() {
+        Properties props = Config.load();
+        maxCities = Math.max(1, Config.getInt(props, "STATE_MAX_CITIES", DEFAULT_MAX_CITIES));
+        maxAgeMillis = Config.getLong(props, "STATE_MAX_AGE_MINUTES", DEFAULT_MAX_AGE_MINUTES) * 60_000;
+    }
+
+    /** Most recently saved city, or null if nothing has been saved yet. */
+    public synchronized Entry last() {
+        load();
+        Entry last = null;
+        for (Entry e : entries.values()) last = e;
+        return last;
+    }
+
+    public synchronized Entry get(String city) {
+        load();
+        return entries.get(WeatherService.normalize(city));
+    }
+
+    /** Records a snapshot and rewrites the file on an I/O thread. */
+    public synchronized void save(WeatherSnapshot snapshot) {
+        load();
+        String key = WeatherService.normalize(snapshot.getCity());
+        entries.remove(key);
+        entries.put(key, new Entry(snapshot, System.currentTimeMillis(), maxAgeMillis));
+        while (entries.size() > maxCities) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+        // Saves in quick succession share one rewrite
+        if (!writeQueued) {
+            writeQueued = true;
+            AppIo.shared().execute(this::flush);
+        }
+    }
+
+    // The copy is taken under writeLock, so an older copy can never be written over a newer one
+    private void flush() {
+        synchronized (writeLock) {
+            List<Entry> copy;
+            synchronized (this) {
+                writeQueued = false;
+                copy = new ArrayList<>(entries.values());
+            }
+            write(copy);
+        }
+    }
+
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+        if (!file.isFile()) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Entry e = readEntry(in);
+                entries.put(WeatherService.normalize(e.getSnapshot().getCity()), e);
+            }
+        } catch (IOException ignored) {
+            // A truncated or corrupt file just means no saved state; keep what was read
+        }
+    }
+
+    private Entry readEntry(DataInputStream in) throws IOException {
+        String city = in.readUTF();
+        long savedAt = in.readLong();
+        WeatherData current = new WeatherData(city, in.readDouble(), in.readDouble(), in.readInt(),
+                in.readDouble(), in.readUTF(), emptyToNull(in.readUTF()), in.readLong(), in.readInt());
+        int n = in.readInt();
+        ForecastSeries.Builder forecast = new ForecastSeries.Builder(n);
+        for (int i = 0; i < n; i++) {
+            forecast.add(in.readLong(), in.readDouble(), in.readDouble(), in.readUTF(), emptyToNull(in.readUTF()));
+        }
+        return new Entry(new WeatherSnapshot(city, current, forecast.build()), savedAt, maxAgeMillis);
+    }
+
+    private void write(List<Entry> snapshot) {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(snapshot.size());
+            for (Entry e : snapshot) {
+                WeatherSnapshot s = e.getSnapshot();
+                WeatherData d = s.getCurrent();
+                out.writeUTF(s.getCity());
+                out.writeLong(e.getSavedAt());
+                out.writeDouble(d.getTemperature());
+                out.writeDouble(d.getFeelsLike());
+                out.writeInt(d.getHumidity());
+                out.writeDouble(d.getWind());
+                out.writeUTF(nullToEmpty(d.getCondition()));
+                out.writeUTF(nullToEmpty(d.getIcon()));
+                out.writeLong(d.getObservedAt());
+                out.writeInt(d.getConditionCode());
+                out.writeInt(s.getForecast().size());
+                for (ForecastEntry f : s.getForecast()) {
+                    out.writeLong(f.getEpoch());
+                    out.writeDouble(f.getTemp());
+                    out.writeDouble(f.getWind());
+                    out.writeUTF(nullToEmpty(f.getCondition()));
+                    out.writeUTF(nullToEmpty(f.getIcon()));
+                }
+            }
+        } catch (IOException ex) {
+            tmp.delete();
+            return;
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            tmp.delete();
+        }
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+
+    private static String emptyToNull(String s) {
+        return s.isEmpty() ? null : s;
+    }
+}
@@ -0,0 +1,149 @@
+package app.weather;
+
+import app.weather.model.ObservationSeries;
+import app.weather.model.Units;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Observed temperatures for the shown city from the {@link ObservationStore}, over the last
+ * week, month or quarter. Queries run on an I/O thread and only while the view is
+ * showing; the result is downsampled (LTTB) to the chart width like the forecast chart.
+ */
+public class TrendsView {
+    private static final DateTimeFormatter AXIS_DAY = DateTimeFormatter.ofPattern("MMM d");
+    private static final int[] RANGE_DAYS = {7, 30, 90};
+    private static final int PIXELS_PER_POINT = 4;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final NumberAxis timeAxis = new NumberAxis();
+    private final NumberAxis tempAxis = new NumberAxis();
+    private final LineChart<Number, Number> chart = new LineChart<>(timeAxis, tempAxis);
+    private final XYChart.Series<Number, Number> line = new XYChart.Series<>();
+    private final ComboBox<String> range = new ComboBox<>(FXCollections.observableArrayList("Last 7 days", "Last 30 days", "Last 90 days"));
+    private final Label summary = new Label();
+    private final VBox node;
+
+    // FX thread only
+    private ObservationStore store;
+    private long cityId;
+    private boolean showing = false;
+    private ObservationSeries series = ObservationSeries.empty();
+    private Units units = Units.METRIC;
+    private int generation = 0;
+
+    public TrendsView() {
+        timeAxis.setForceZeroInRange(false);
+        timeAxis.setTickLabelFormatter(new StringConverter<>() {
+            @Override
+            public String toString(Number epoch) {
+                return Instant.ofEpochSecond(epoch.longValue()).atZone(zone).format(AXIS_DAY);
+            }
+
+            @Override
+            public Number fromString(String s) {
+                return 0;
+            }
+        });
+        tempAxis.setForceZeroInRange(false);
+        chart.setAnimated(false);
+        chart.setCreateSymbols(false);
+        chart.setLegendVisible(false);
+        chart.getData().add(line);
+        chart.widthProperty().addListener((obs, oldW, newW) -> plot());
+        VBox.setVgrow(chart, Priority.ALWAYS);
+
+        range.getSelectionModel().select(1);
+        range.valueProperty().addListener((obs, was, now) -> load());
+        HBox bar = new HBox(12, range, summary);
+        bar.setAlignment(Pos.CENTER_LEFT);
+        node = new VBox(6, bar, chart);
+    }
+
+    public Node getNode() {
+        return node;
+    }
+
+    /** Shows the history of {@code cityId}; 0 (not resolved yet) shows nothing. */
+    public void setCity(ObservationStore store, long cityId) {
+        if (this.store == store && this.cityId == cityId) return;
+        this.store = store;
+        this.cityId = cityId;
+        load();
+    }
+
+    public void setShowing(boolean showing) {
+        this.showing = showing;
+        load();
+    }
+
+    public void setUnits(Units units) {
+        if (this.units == units) return;
+        this.units = units;
+        plot();
+    }
+
+    private void load() {
+        int requested = ++generation;
+        if (!showing) return;
+        if (store == null || cityId <= 0) {
+            apply(ObservationSeries.empty());
+            return;
+        }
+        ObservationStore s = store;
+        long id = cityId;
+        long to = Instant.now().getEpochSecond() + 1;
+        long from = to - RANGE_DAYS[Math.max(0, range.getSelectionModel().getSelectedIndex())] * 86400L;
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return s.query(id, from, to);
+            } catch (Exception ex) {
+                return ObservationSeries.empty(); // unreadable history: show none
+            }
+        }, AppIo.shared()).thenAccept(result -> Platform.runLater(() -> {
+            if (requested == generation) apply(result);
+        }));
+    }
+
+    private void apply(ObservationSeries result) {
+        series = result;
+        summary.setText(result.isEmpty() ? "No observations recorded yet" : result.size() + " observations");
+        plot();
+    }
+
+    private void plot() {
+        int n = series.size();
+        tempAxis.setLabel("Temperature (" + units.getTemperatureSymbol() + ")");
+        double width = chart.getWidth();
+        int threshold = Math.min(n, width > 0 ? Math.max(8, (int) (width / PIXELS_PER_POINT)) : n);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = series.epochAt(i);
+            y[i] = units.temperature(series.tempAt(i));
+        }
+        List<XYChart.Data<Number, Number>> points = new ArrayList<>(threshold);
+        for (int i : Lttb.select(x, y, threshold)) {
+            points.add(new XYChart.Data<>(x[i], y[i]));
+        }
+        line.getData().setAll(points);
+    }
+}
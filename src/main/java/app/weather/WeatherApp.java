@@ -1,12 +1,14 @@
 package app.weather;
 
+import app.weather.model.CityLocation;
 import app.weather.model.ForecastEntry;
+import app.weather.model.Units;
 import app.weather.model.WeatherData;
+import app.weather.model.WeatherSnapshot;
+import app.weather.model.WeatherUpdate;
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -14,6 +16,7 @@ import javafx.scene.SnapshotParameters;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
 import javafx.scene.layout.*;
 import javafx.scene.paint.*;
 import javafx.scene.text.Font;
@@ -25,14 +28,32 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 
 public class WeatherApp extends Application {
 
-    private final WeatherService weatherService = new WeatherService();
+    // Built in the background (config read and HttpClient/TLS setup) while the UI is constructed
+    private final CompletableFuture<WeatherService> weatherService = CompletableFuture.supplyAsync(WeatherService::new);
+    // Keeps the shown city current without clicks; off when REFRESH_ENABLED=false
+    private final CompletableFuture<RefreshScheduler> refresher = weatherService.thenApply(service -> {
+        Properties props = Config.load();
+        return "false".equalsIgnoreCase(props.getProperty("REFRESH_ENABLED", "true").trim()) ? null : new RefreshScheduler(service, props);
+    });
+    // Every fetch result goes through the feed; the main view is one subscriber, other views can attach
+    private final WeatherFeed feed = new WeatherFeed();
     private final HistoryManager historyManager = new HistoryManager();
+    private final IconCache iconCache = new IconCache();
+    private final StateStore stateStore = new StateStore();
+    private final SnapshotExporter exporter = new SnapshotExporter(1);
+    // Latest search wins: older fetches are cancelled and their results never reach the UI
+    private final FetchScheduler fetches = new FetchScheduler(4, Platform::runLater);
     private final ComboBox<String> unitCombo = new ComboBox<>();
     private final TextField cityField = new TextField();
     private final Label statusLabel = new Label();
@@ -43,34 +64,25 @@ public class WeatherApp extends Application {
     private final Label conditionLabel = new Label("--");
     private final ImageView iconView = new ImageView();
     private final ListView<String> historyList = new ListView<>();
-    private final TableView<ForecastEntry> forecastTable = new TableView<>();
+    private final ForecastView forecastView = new ForecastView();
+    private final TrendsView trendsView = new TrendsView();
+    private final DiagnosticsPanel diagnostics = new DiagnosticsPanel();
+    // All result rendering goes through here: at most one FX-thread pass per pulse
+    private final RenderBatcher render = new RenderBatcher();
     private final BorderPane root = new BorderPane();
 
     private String currentCity = null;
     private WeatherData lastData = null;
+    private List<ForecastEntry> lastForecast = List.of();
+    private int backgroundPeriod = -1;
 
-    // Map OpenWeatherMap icon codes to local resource paths or fallback descriptions
-    private static final Map<String, String> ICON_MAP = new HashMap<>();
-    static {
-        ICON_MAP.put("01d", "/app/weather/icons/sun.png"); // Clear sky (day)
-        ICON_MAP.put("01n", "/app/weather/icons/moon.png"); // Clear sky (night)
-        ICON_MAP.put("02d", "/app/weather/icons/partly_cloudy_day.png"); // Few clouds (day)
-        ICON_MAP.put("02n", "/app/weather/icons/partly_cloudy_night.png"); // Few clouds (night)
-        ICON_MAP.put("03d", "/app/weather/icons/cloud.png"); // Scattered clouds
-        ICON_MAP.put("03n", "/app/weather/icons/cloud.png");
-        ICON_MAP.put("04d", "/app/weather/icons/broken_clouds.png"); // Broken clouds
-        ICON_MAP.put("04n", "/app/weather/icons/broken_clouds.png");
-        ICON_MAP.put("09d", "/app/weather/icons/rain.png"); // Shower rain
-        ICON_MAP.put("09n", "/app/weather/icons/rain.png");
-        ICON_MAP.put("10d", "/app/weather/icons/rain.png"); // Rain (day)
-        ICON_MAP.put("10n", "/app/weather/icons/rain.png"); // Rain (night)
-        ICON_MAP.put("11d", "/app/weather/icons/thunderstorm.png"); // Thunderstorm
-        ICON_MAP.put("11n", "/app/weather/icons/thunderstorm.png");
-        ICON_MAP.put("13d", "/app/weather/icons/snow.png"); // Snow
-        ICON_MAP.put("13n", "/app/weather/icons/snow.png");
-        ICON_MAP.put("50d", "/app/weather/icons/mist.png"); // Mist
-        ICON_MAP.put("50n", "/app/weather/icons/mist.png");
-    }
+    // Morning/day/evening/night gradients, built once; indexed by dayPeriod
+    static final Background[] BACKGROUNDS = {
+            gradient("#89CFF0", "#E0FFFF"),
+            gradient("#87CEEB", "#FFFFFF"),
+            gradient("#FF7E5F", "#FEB47B"),
+            gradient("#2C3E50", "#4CA1AF")
+    };
 
     @Override
     public void start(Stage stage) {
@@ -106,6 +118,8 @@ public class WeatherApp extends Application {
 
         iconView.setFitWidth(80);
         iconView.setFitHeight(80);
+        iconView.setPreserveRatio(false); // Ensure full fit
+        iconView.setSmooth(true); // Enable smooth scaling
         VBox vals = new VBox(6);
         vals.getChildren().addAll(
                 labeled("Temperature:", tempLabel),
@@ -118,25 +132,11 @@ public class WeatherApp extends Application {
 
         currentBox.getChildren().addAll(header, currRow);
 
-        // Forecast table
-        forecastTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_ALL_COLUMNS);
-        TableColumn<ForecastEntry, String> timeCol = new TableColumn<>("Time");
-        timeCol.setCellValueFactory(cd -> {
-            long epoch = cd.getValue().getEpoch();
-            LocalDateTime dt = LocalDateTime.ofInstant(Instant.ofEpochSecond(epoch), ZoneId.systemDefault());
-            return new SimpleStringProperty(dt.format(DateTimeFormatter.ofPattern("EEE, MMM d HH:mm")));
-        });
-        TableColumn<ForecastEntry, String> tempCol = new TableColumn<>("Temp");
-        tempCol.setCellValueFactory(cd -> new SimpleStringProperty(String.format("%.1f°", cd.getValue().getTemp())));
-        TableColumn<ForecastEntry, String> windCol = new TableColumn<>("Wind");
-        windCol.setCellValueFactory(cd -> new SimpleStringProperty(String.format("%.1f", cd.getValue().getWind())));
-        TableColumn<ForecastEntry, String> condCol = new TableColumn<>("Condition");
-        condCol.setCellValueFactory(cd -> new SimpleStringProperty(cd.getValue().getCondition()));
-
-        forecastTable.getColumns().addAll(timeCol, tempCol, windCol, condCol);
-        forecastTable.setPlaceholder(new Label("No forecast yet"));
+        Tab trendsTab = new Tab("Trends", trendsView.getNode());
+        trendsTab.selectedProperty().addListener((obs, was, selected) -> trendsView.setShowing(selected));
+        forecastView.addTab(trendsTab);
 
-        VBox centerBox = new VBox(16, currentBox, new Label("Short-term Forecast (next 24h)"), forecastTable);
+        VBox centerBox = new VBox(16, currentBox, new Label("5-Day Forecast (3-hour steps)"), forecastView.getNode());
         centerBox.setPadding(new Insets(16));
 
         // Right: history
@@ -155,18 +155,24 @@ public class WeatherApp extends Application {
         Button clearHist = new Button("Clear History");
         clearHist.setOnAction(e -> {
             historyManager.clear();
-            refreshHistory();
         });
         rightBox.getChildren().addAll(histLabel, historyList, clearHist);
 
-        // Bottom status
+        // Bottom status, with a toggle for the diagnostics overlay
         statusLabel.setPadding(new Insets(8));
         statusLabel.setText("Enter a city and press Search");
+        ToggleButton diagBtn = new ToggleButton("Diagnostics");
+        diagBtn.selectedProperty().addListener((obs, was, on) -> diagnostics.setShowing(on));
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox bottomBar = new HBox(8, statusLabel, spacer, diagnostics.getNode(), diagBtn);
+        bottomBar.setAlignment(Pos.BOTTOM_LEFT);
+        bottomBar.setPadding(new Insets(0, 8, 8, 0));
 
         root.setTop(topBar);
         root.setCenter(centerBox);
         root.setRight(rightBox);
-        root.setBottom(statusLabel);
+        root.setBottom(bottomBar);
 
         // Actions
         searchBtn.setOnAction(e -> {
@@ -178,6 +184,11 @@ public class WeatherApp extends Application {
             fetchAndDisplay(city, true);
         });
 
+        feed.subscribe(new MainViewSubscriber(), render);
+
+        cityField.setOnAction(e -> searchBtn.fire());
+        new CityAutocomplete(cityField, historyManager, city -> fetchAndDisplay(city, true));
+
         unitCombo.valueProperty().addListener((obs, oldV, newV) -> updateUnits());
 
         screenshotBtn.setOnAction(e -> saveScreenshot(stage));
@@ -187,12 +198,45 @@ public class WeatherApp extends Application {
         // Initial UI background
         updateBackground(LocalDateTime.now().getHour());
 
-        // Load history
+        // Load history in the background
         refreshHistory();
 
+        CompletableFuture.runAsync(Metrics::registerMBean);
+
         Scene scene = new Scene(root, 1100, 700);
         stage.setScene(scene);
+        StartupTimer.mark(StartupTimer.UI_BUILT);
         stage.show();
+        StartupTimer.mark(StartupTimer.STAGE_SHOWN);
+
+        // Used by the cds profile: run through startup and a first fetch, then exit so the JVM writes the archive
+        if (Boolean.getBoolean("weather.trainingRun")) {
+            AppScheduler.shared().schedule(Platform::exit, 8, TimeUnit.SECONDS);
+        }
+
+        restoreLastCity();
+    }
+
+    // Paints the last viewed city from disk right away, then refreshes it in the background
+    private void restoreLastCity() {
+        CompletableFuture.supplyAsync(stateStore::last).thenAccept(saved -> {
+            if (saved == null) return;
+            Platform.runLater(() -> {
+                if (currentCity != null) return; // the user already started a search
+                String city = saved.getSnapshot().getCity();
+                cityField.setText(city);
+                showSaved(saved);
+                fetchAndDisplay(city, false, false);
+                showTrends(city);
+            });
+        });
+    }
+
+    private void showSaved(StateStore.Entry saved) {
+        applyWeather(saved.getSnapshot().getCurrent(), saved.getSnapshot().getForecast());
+        String at = LocalDateTime.ofInstant(Instant.ofEpochMilli(saved.getSavedAt()), ZoneId.systemDefault())
+                .format(DateTimeFormatter.ofPattern("MMM d HH:mm"));
+        setStatus("Showing saved data for " + saved.getSnapshot().getCity() + " from " + at + (saved.isStale() ? " (stale)" : ""));
     }
 
     private HBox labeled(String name, Label value) {
@@ -204,206 +248,251 @@ public class WeatherApp extends Application {
     }
 
     private void fetchAndDisplay(String city, boolean addToHistory) {
-        setStatus("Fetching weather for " + city + "...");
+        fetchAndDisplay(city, addToHistory, true);
+    }
+
+    private void fetchAndDisplay(String city, boolean addToHistory, boolean alertOnError) {
+        if (alertOnError) setStatus("Fetching weather for " + city + "...");
         currentCity = city;
-        new Thread(() -> {
-            try {
-                boolean metric = unitCombo.getSelectionModel().getSelectedIndex() == 0;
-                WeatherData data = weatherService.fetchWeather(city, metric);
-                List<ForecastEntry> forecast = weatherService.fetchForecast(city, metric, 8); // next ~24h (3h * 8)
+        // Both requests run at once and each half renders as soon as it arrives.
+        // Starting a new request cancels this one, so stale results never overwrite newer ones.
+        FetchScheduler.Request request = fetches.begin();
+        CompletableFuture<WeatherData> current = request.submit(() -> weatherService.join().fetchWeather(city));
+        CompletableFuture<List<ForecastEntry>> forecast = request.submit(() -> weatherService.join().fetchForecast(city, 40)); // full 5 days (3h * 40)
+        current.thenAccept(data -> feed.publish(new WeatherUpdate(city, data, null)));
+        forecast.thenAccept(entries -> feed.publish(new WeatherUpdate(city, null, entries)));
+        current.thenCombine(forecast, (data, entries) -> new WeatherSnapshot(city, data, entries)).whenComplete((snapshot, err) -> {
+            if (err != null) {
+                Throwable cause = rootCause(err);
+                if (cause instanceof CancellationException) return; // superseded by a newer request
+                if (cause instanceof CircuitOpenException open) {
+                    showUnavailable(city, open);
+                    return;
+                }
+                // Offline or failing upstream: fall back to the last saved data for this city
+                StateStore.Entry saved = stateStore.get(city);
+                if (saved != null) {
+                    showSaved(saved);
+                    setStatus(statusLabel.getText() + " — refresh failed: " + cause.getMessage());
+                    return;
+                }
+                if (alertOnError) alert(Alert.AlertType.ERROR, "API Error", cause.getMessage());
+                setStatus("Failed to fetch weather: " + cause.getMessage());
+                return;
+            }
+            stateStore.save(snapshot);
+            autoRefresh(city, snapshot.getCurrent());
+            showTrends(city);
+            if (addToHistory) {
+                historyManager.add(city); // updates historyList in place
+            }
+            setStatus("Updated " + city + " at " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm")));
+        });
+    }
+
+    // History is recorded by id, which the first successful fetch of a name resolves
+    private void showTrends(String city) {
+        weatherService.thenAccept(service -> {
+            CityLocation loc = service.getCityIndex().get(city);
+            Platform.runLater(() -> {
+                if (city.equals(currentCity)) trendsView.setCity(service.getObservations(), loc == null ? 0 : loc.getId());
+            });
+        });
+    }
+
+    // Follows the city on screen; updates land only while it is still the current city
+    private void autoRefresh(String city, WeatherData latest) {
+        refresher.thenAccept(r -> {
+            if (r == null) return;
+            r.unwatchAll();
+            r.watch(city, latest, (c, data) -> {
+                feed.publish(new WeatherUpdate(city, data, null));
                 Platform.runLater(() -> {
-                    lastData = data;
-                    applyWeather(data, forecast, metric);
-                    if (addToHistory) {
-                        historyManager.add(city);
-                        refreshHistory();
+                    if (city.equals(currentCity)) {
+                        setStatus("Updated " + city + " at " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm")) + " (auto)");
                     }
-                    setStatus("Updated " + city + " at " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm")));
                 });
-            } catch (Exception ex) {
-                Platform.runLater(() -> {
-                    alert(Alert.AlertType.ERROR, "API Error", ex.getMessage());
-                    setStatus("Failed to fetch weather: " + ex.getMessage());
+                weatherService.join().fetchForecastAsync(city, 40).thenAccept(forecast -> {
+                    feed.publish(new WeatherUpdate(city, null, forecast));
+                    stateStore.save(new WeatherSnapshot(city, data, forecast));
                 });
-            }
-        }).start();
+            });
+        });
+    }
+
+    // The breaker is failing calls fast: keep the screen usable without an alert and retry once it lets calls through
+    private void showUnavailable(String city, CircuitOpenException open) {
+        StateStore.Entry saved = stateStore.get(city);
+        if (saved != null) {
+            showSaved(saved);
+            setStatus(statusLabel.getText() + " — service unavailable, retrying automatically");
+        } else {
+            applyWeather(WeatherData.demo(), ForecastEntry.demoList());
+            setStatus("Weather service unavailable — showing DEMO data, not " + city + "; retrying automatically");
+        }
+        AppScheduler.shared().schedule(() -> Platform.runLater(() -> {
+            if (city.equals(currentCity)) fetchAndDisplay(city, false, false);
+        }), Math.max(1000, open.getRetryAfterMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    private static Throwable rootCause(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    // Applies feed updates for the city on screen; runs inside a render pass with bursts already conflated
+    private final class MainViewSubscriber implements Flow.Subscriber<WeatherUpdate> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(WeatherUpdate update) {
+            if (currentCity == null || !WeatherService.normalize(update.getCity()).equals(WeatherService.normalize(currentCity))) return;
+            if (update.getCurrent() != null) applyCurrent(update.getCurrent());
+            if (update.getForecast() != null) applyForecast(update.getForecast());
+        }
+
+        @Override
+        public void onError(Throwable error) { }
+
+        @Override
+        public void onComplete() { }
+    }
+
+    // Direct callers (saved, demo and fallback data) share the feed's render pass
+    private void applyWeather(WeatherData data, List<ForecastEntry> forecast) {
+        render.submit(RenderPart.CURRENT, () -> applyCurrent(data));
+        render.submit(RenderPart.FORECAST, () -> applyForecast(forecast));
     }
 
-    private void applyWeather(WeatherData data, List<ForecastEntry> forecast, boolean metric) {
-        double t = data.getTemperature();
-        double feels = data.getFeelsLike();
-        double wind = data.getWind();
+    private enum RenderPart { CURRENT, FORECAST, ICON }
+
+    // Render pass only; changes land in place and the next pulse lays out just what they touched
+    private void applyCurrent(WeatherData data) {
+        lastData = data;
         String cond = data.getCondition();
         String icon = data.getIcon();
 
-        tempLabel.setText(String.format("%.1f°", t));
-        feelsLabel.setText(String.format("%.1f°", feels));
-        humidityLabel.setText(data.getHumidity() + "%");
-        windLabel.setText(String.format("%.1f %s", wind, metric ? "km/h" : "mph"));
-        conditionLabel.setText(cond);
+        renderValues();
+        setText(conditionLabel, cond);
 
-        System.out.println("Applying weather with icon: " + icon); // Debug output
         // Set weather icon with fallback
         if (icon != null && !icon.isEmpty()) {
-            try {
-                String url = "https://openweathermap.org/img/wn/" + icon + "@2x.png";
-                System.out.println("Attempting to load URL: " + url); // Debug output
-                Image image = new Image(url, true); // Background loading
-                // Add a timeout to check if the image loads within a reasonable time
-                new java.util.Timer().schedule(new java.util.TimerTask() {
-                    @Override
-                    public void run() {
-                        if (!image.isError() && image.getProgress() < 1.0) { // If still loading
-                            System.out.println("URL load timed out, falling back to local icon");
-                            Platform.runLater(() -> setFallbackIcon(cond));
-                        }
-                    }
-                }, 2000); // 2-second timeout
-                // Check error property
-                image.errorProperty().addListener((obs, oldVal, newVal) -> {
-                    if (newVal) {
-                        System.out.println("URL load failed, falling back to local icon"); // Debug output
-                        Platform.runLater(() -> setFallbackIcon(cond));
-                    } else if (image.isError()) {
-                        System.out.println("Image error detected after load");
-                        Platform.runLater(() -> setFallbackIcon(cond));
-                    }
-                });
-                // Update ImageView when image is ready
-                image.progressProperty().addListener((obs, oldVal, newVal) -> {
-                    if (newVal.doubleValue() == 1.0 && !image.isError()) {
-                        System.out.println("URL image loaded successfully, width: " + image.getWidth() + ", height: " + image.getHeight());
-                        Platform.runLater(() -> {
-                            iconView.setImage(image);
-                            iconView.setPreserveRatio(false); // Ensure full fit
-                            iconView.setSmooth(true); // Enable smooth scaling
-                            iconView.setStyle("-fx-border-color: green; -fx-border-width: 2;"); // Visual debug border
-                            System.out.println("ImageView updated, fitWidth: " + iconView.getFitWidth() + ", fitHeight: " + iconView.getFitHeight() +
-                                    ", bounds: " + iconView.getBoundsInLocal());
-                            // Force full UI refresh
-                            root.requestLayout();
-                            Scene scene = root.getScene();
-                            if (scene != null) {
-                                System.out.println("Requesting scene repaint");
-                                scene.getWindow().sizeToScene(); // Resize to force redraw
-                                // Aggressive refresh
-                                scene.getRoot().setVisible(false);
-                                scene.getRoot().setVisible(true); // Toggle visibility to force repaint
-                            }
-                            // Manual image check
-                            if (iconView.getImage() == null) {
-                                System.out.println("ImageView image is null after update");
-                            } else {
-                                System.out.println("ImageView image confirmed, width: " + iconView.getImage().getWidth() +
-                                        ", height: " + iconView.getImage().getHeight());
-                            }
-                        });
-                    }
-                });
-            } catch (Exception e) {
-                System.out.println("Exception loading URL: " + e.getMessage()); // Debug output
-                setFallbackIcon(cond);
-            }
+            // Memory, then disk, then network; never more than one download per icon code
+            iconCache.remoteIcon(icon).thenAccept(image -> render.submit(RenderPart.ICON, () -> {
+                if (lastData != data) return; // a newer result has been applied since
+                if (image == null) {
+                    setFallbackIcon(cond);
+                } else {
+                    iconView.setImage(image);
+                }
+            }));
         } else {
-            System.out.println("No icon provided, using fallback"); // Debug output
             setFallbackIcon(cond);
         }
 
-        ObservableList<ForecastEntry> items = FXCollections.observableArrayList(forecast);
-        forecastTable.setItems(items);
-
         updateBackground(LocalDateTime.now().getHour());
+        StartupTimer.mark(StartupTimer.FIRST_DATA);
     }
 
-    private void setFallbackIcon(String condition) {
-        String iconPath = null;
-        // Map condition to icon if specific icon code is unavailable
-        if (condition != null) {
-            String condLower = condition.toLowerCase();
-            if (condLower.contains("clear")) {
-                iconPath = ICON_MAP.get("01d"); // Use day clear icon as fallback
-            } else if (condLower.contains("cloud")) {
-                iconPath = ICON_MAP.get("03d");
-            } else if (condLower.contains("rain") || condLower.contains("shower")) {
-                iconPath = ICON_MAP.get("09d");
-            } else if (condLower.contains("thunder")) {
-                iconPath = ICON_MAP.get("11d");
-            } else if (condLower.contains("snow")) {
-                iconPath = ICON_MAP.get("13d");
-            } else if (condLower.contains("mist") || condLower.contains("fog")) {
-                iconPath = ICON_MAP.get("50d");
-            }
-        }
+    private void applyForecast(List<ForecastEntry> forecast) {
+        lastForecast = forecast;
+        forecastView.show(forecast, currentUnits());
+    }
 
-        if (iconPath != null) {
-            try {
-                System.out.println("Attempting to load local icon from: " + iconPath); // Debug output
-                Image fallbackImage = new Image(getClass().getResourceAsStream(iconPath));
-                if (fallbackImage.isError()) {
-                    System.out.println("Local icon load failed for: " + iconPath); // Debug output
-                    throw new Exception("Image load error");
-                }
-                iconView.setImage(fallbackImage);
-            } catch (Exception e) {
-                System.out.println("Exception loading local icon: " + e.getMessage()); // Debug output
-                // Ultimate fallback: set placeholder text
-                iconView.setImage(null);
-                conditionLabel.setText(condition + " (No icon available)");
-            }
+    private void setFallbackIcon(String condition) {
+        // Bundled icons are decoded once and then served from memory
+        Image fallbackImage = iconCache.localIcon(condition);
+        if (fallbackImage != null) {
+            iconView.setImage(fallbackImage);
         } else {
-            System.out.println("No matching icon path for condition: " + condition); // Debug output
+            // Ultimate fallback: set placeholder text
             iconView.setImage(null);
-            conditionLabel.setText(condition + " (No icon available)");
+            setText(conditionLabel, condition + " (No icon available)");
         }
     }
 
+    // Writes the unit-dependent labels from lastData; no network or icon work
+    private void renderValues() {
+        Units units = currentUnits();
+        setText(tempLabel, String.format("%.1f°", units.temperature(lastData.getTemperature())));
+        setText(feelsLabel, String.format("%.1f°", units.temperature(lastData.getFeelsLike())));
+        setText(humidityLabel, lastData.getHumidity() + "%");
+        setText(windLabel, String.format("%.1f %s", units.windSpeed(lastData.getWind()), units.getWindLabel()));
+    }
+
+    // A label whose text is re-set, even to equal text, is laid out again on the next pulse
+    private static void setText(Label label, String text) {
+        if (!text.equals(label.getText())) label.setText(text);
+    }
+
+    private Units currentUnits() {
+        return unitCombo.getSelectionModel().getSelectedIndex() == 1 ? Units.IMPERIAL : Units.METRIC;
+    }
+
     private void updateUnits() {
         if (lastData == null) return;
-        boolean metric = unitCombo.getSelectionModel().getSelectedIndex() == 0;
-        // Re-fetch in selected unit to keep wind conversion simple and forecast consistent
-        if (currentCity != null) {
-            fetchAndDisplay(currentCity, false);
-        }
+        // Models hold canonical values, so switching units is a local re-render
+        renderValues();
+        forecastView.setUnits(currentUnits());
+        trendsView.setUnits(currentUnits());
+    }
+
+    static int dayPeriod(int hour) {
+        if (hour >= 6 && hour < 12) return 0; // morning
+        if (hour >= 12 && hour < 17) return 1; // day
+        if (hour >= 17 && hour < 20) return 2; // evening
+        return 3; // night
     }
 
     private void updateBackground(int hour) {
-        // Morning/day/evening/night gradients
-        Stop[] stops;
-        if (hour >= 6 && hour < 12) { // morning
-            stops = new Stop[]{ new Stop(0, Color.web("#89CFF0")), new Stop(1, Color.web("#E0FFFF")) };
-        } else if (hour >= 12 && hour < 17) { // day
-            stops = new Stop[]{ new Stop(0, Color.web("#87CEEB")), new Stop(1, Color.web("#FFFFFF")) };
-        } else if (hour >= 17 && hour < 20) { // evening
-            stops = new Stop[]{ new Stop(0, Color.web("#FF7E5F")), new Stop(1, Color.web("#FEB47B")) };
-        } else { // night
-            stops = new Stop[]{ new Stop(0, Color.web("#2C3E50")), new Stop(1, Color.web("#4CA1AF")) };
-        }
-        root.setBackground(new Background(new BackgroundFill(new LinearGradient(0,0,1,1,true, CycleMethod.NO_CYCLE, stops),
-                CornerRadii.EMPTY, Insets.EMPTY)));
+        int period = dayPeriod(hour);
+        // Only a change of period repaints the background
+        if (period == backgroundPeriod) return;
+        backgroundPeriod = period;
+        root.setBackground(BACKGROUNDS[period]);
     }
 
+    private static Background gradient(String from, String to) {
+        Stop[] stops = { new Stop(0, Color.web(from)), new Stop(1, Color.web(to)) };
+        return new Background(new BackgroundFill(new LinearGradient(0, 0, 1, 1, true, CycleMethod.NO_CYCLE, stops),
+                CornerRadii.EMPTY, Insets.EMPTY));
+    }
+
+    // Only the capture runs on the FX thread; encoding and the write happen on the exporter's pool
     private void saveScreenshot(Stage stage) {
-        try {
-            FileChooser chooser = new FileChooser();
-            chooser.setTitle("Save Screenshot");
-            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PNG Image", "*.png"));
-            chooser.setInitialFileName("weather_screenshot.png");
-            File file = chooser.showSaveDialog(stage);
-            if (file == null) return;
-            SnapshotParameters params = new SnapshotParameters();
-            javafx.scene.image.WritableImage image = root.snapshot(params, null);
-            javax.imageio.ImageIO.write(javafx.embed.swing.SwingFXUtils.fromFXImage(image, null), "png", file);
-            alert(Alert.AlertType.INFORMATION, "Saved", "Screenshot saved to: " + file.getAbsolutePath());
-        } catch (Exception ex) {
-            alert(Alert.AlertType.ERROR, "Save Error", ex.getMessage());
-        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Save Screenshot");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PNG Image", "*.png"));
+        chooser.setInitialFileName("weather_screenshot.png");
+        File file = chooser.showSaveDialog(stage);
+        if (file == null) return;
+        WritableImage image = root.snapshot(new SnapshotParameters(), null);
+        setStatus("Saving screenshot...");
+        exporter.export(image, file.toPath()).whenComplete((path, err) -> Platform.runLater(() -> {
+            if (err != null) {
+                setStatus("Screenshot not saved");
+                alert(Alert.AlertType.ERROR, "Save Error", rootCause(err).getMessage());
+            } else {
+                setStatus("Screenshot saved");
+                alert(Alert.AlertType.INFORMATION, "Saved", "Screenshot saved to: " + path.toAbsolutePath());
+            }
+        }));
     }
 
     private void loadDemo() {
+        currentCity = null; // stops auto-refresh from replacing the demo data
+        refresher.thenAccept(r -> {
+            if (r != null) r.unwatchAll();
+        });
+        trendsView.setCity(null, 0);
         WeatherData demo = WeatherData.demo();
         List<ForecastEntry> demoF = ForecastEntry.demoList();
-        lastData = demo;
-        applyWeather(demo, demoF, unitCombo.getSelectionModel().getSelectedIndex() == 0);
+        applyWeather(demo, demoF);
         setStatus("Demo data loaded — no API key required");
     }
 
@@ -420,11 +509,13 @@ public class WeatherApp extends Application {
     }
 
     private void refreshHistory() {
-        List<String> items = historyManager.getAll();
-        historyList.getItems().setAll(items);
+        // The file is read on the manager's writer thread and its rows published to this live list,
+        // so the load, searches and clears all update the ListView without a reload
+        historyList.setItems(historyManager.getAll());
     }
 
     public static void main(String[] args) {
+        StartupTimer.mark(StartupTimer.MAIN);
         launch(args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,170 @@
+package app.weather;
+
+import app.weather.model.WeatherUpdate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Publishes per-city weather updates from one fetch stream to any number of views.
+ * Each subscriber gets its own queue, conflated per city: while it is busy or has no demand,
+ * a newer update for a city is merged into the one still waiting, so a slow subscriber only
+ * ever sees the latest data and its backlog is bounded by the number of cities. Signals are
+ * delivered on the subscriber's executor, one drain at a time (for the UI, Platform::runLater).
+ * A new subscriber first receives the latest update for every city published so far.
+ */
+public class WeatherFeed implements Flow.Publisher<WeatherUpdate> {
+    private final Executor defaultExecutor;
+    private final Map<String, WeatherUpdate> latest = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean closed = false;
+
+    public WeatherFeed() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public WeatherFeed(Executor defaultExecutor) {
+        this.defaultExecutor = defaultExecutor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super WeatherUpdate> subscriber) {
+        subscribe(subscriber, defaultExecutor);
+    }
+
+    /** onSubscribe runs on the calling thread; onNext and onComplete run on {@code executor}. */
+    public void subscribe(Flow.Subscriber<? super WeatherUpdate> subscriber, Executor executor) {
+        Subscription sub = new Subscription(subscriber, executor);
+        subscriptions.add(sub);
+        subscriber.onSubscribe(sub);
+        latest.forEach(sub::offer);
+        if (closed) sub.complete();
+    }
+
+    public void publish(WeatherUpdate update) {
+        if (closed) return;
+        String key = WeatherService.normalize(update.getCity());
+        latest.merge(key, update, WeatherUpdate::merge);
+        // Subscribers get only the parts that changed; replays on subscribe carry the full latest state
+        for (Subscription sub : subscriptions) sub.offer(key, update);
+    }
+
+    public int getSubscriberCount() { return subscriptions.size(); }
+
+    /** Completes every subscriber once it has drained what is already queued. */
+    public void close() {
+        closed = true;
+        for (Subscription sub : subscriptions) sub.complete();
+    }
+
+    private final class Subscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super WeatherUpdate> subscriber;
+        private final Executor executor;
+        // Guarded by this; keeps each city's first-queued position so no city starves
+        private final LinkedHashMap<String, WeatherUpdate> pending = new LinkedHashMap<>();
+        private long demand = 0;
+        private boolean draining = false;
+        private boolean completing = false;
+        private boolean done = false;
+
+        Subscription(Flow.Subscriber<? super WeatherUpdate> subscriber, Executor executor) {
+            this.subscriber = subscriber;
+            this.executor = executor;
+        }
+
+        void offer(String key, WeatherUpdate update) {
+            synchronized (this) {
+                if (done) return;
+                pending.merge(key, update, WeatherUpdate::merge);
+            }
+            schedule();
+        }
+
+        void complete() {
+            synchronized (this) {
+                completing = true;
+            }
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                executor.execute(() -> subscriber.onError(new IllegalArgumentException("request must be positive: " + n)));
+                return;
+            }
+            synchronized (this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n; // saturate, as the spec allows
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                done = true;
+                pending.clear();
+            }
+            subscriptions.remove(this);
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (draining || done) return;
+                boolean canSend = demand > 0 && !pending.isEmpty();
+                boolean canComplete = completing && pending.isEmpty();
+                if (!canSend && !canComplete) return;
+                draining = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        // Runs on the executor; at most one drain per subscription at a time
+        private void drain() {
+            while (true) {
+                WeatherUpdate next;
+                synchronized (this) {
+                    if (done) {
+                        draining = false;
+                        return;
+                    }
+                    if (demand > 0 && !pending.isEmpty()) {
+                        Iterator<WeatherUpdate> it = pending.values().iterator();
+                        next = it.next();
+                        it.remove();
+                        if (demand != Long.MAX_VALUE) demand--;
+                    } else if (completing && pending.isEmpty()) {
+                        done = true;
+                        draining = false;
+                        next = null;
+                    } else {
+                        draining = false;
+                        return;
+                    }
+                }
+                if (next == null) {
+                    subscriptions.remove(this);
+                    subscriber.onComplete();
+                    return;
+                }
+                try {
+                    subscriber.onNext(next);
+                } catch (RuntimeException ex) {
+                    cancel();
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    subscriber.onError(ex);
+                    return;
+                }
+            }
+        }
+    }
+}
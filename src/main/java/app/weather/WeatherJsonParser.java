@@ -0,0 +1,246 @@
+package app.weather;
+
+import app.weather.model.CityLocation;
+import app.weather.model.Codes;
+import app.weather.model.ForecastSeries;
+import app.weather.model.WeatherData;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Token-level decoder for the OpenWeather /weather, /group and /forecast payloads.
+ * Reads straight into the model objects without building a JsonNode tree, skips
+ * fields it does not use and stops reading a forecast once enough points are taken.
+ */
+public class WeatherJsonParser {
+
+    private final JsonFactory factory;
+
+    public WeatherJsonParser() {
+        this(new JsonFactory());
+    }
+
+    public WeatherJsonParser(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    public WeatherData parseWeather(String city, InputStream in) throws IOException {
+        return parseWeather(city, in, null);
+    }
+
+    /** Also reports the city id and coordinates from the response to {@code onLocation}, if given. */
+    public WeatherData parseWeather(String city, InputStream in, Consumer<CityLocation> onLocation) throws IOException {
+        try (JsonParser p = factory.createParser(in)) {
+            expect(p.nextToken(), JsonToken.START_OBJECT);
+            return readWeather(city, p, onLocation);
+        }
+    }
+
+    public WeatherData parseWeather(String city, byte[] body) throws IOException {
+        try (JsonParser p = factory.createParser(body)) {
+            expect(p.nextToken(), JsonToken.START_OBJECT);
+            return readWeather(city, p, null);
+        }
+    }
+
+    /** Reads a /group response: current conditions keyed by city id, named as the API names them. */
+    public Map<Long, WeatherData> parseGroup(InputStream in) throws IOException {
+        try (JsonParser p = factory.createParser(in)) {
+            expect(p.nextToken(), JsonToken.START_OBJECT);
+            Map<Long, WeatherData> out = new HashMap<>();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if (!"list".equals(field)) {
+                    p.skipChildren();
+                    continue;
+                }
+                expect(value, JsonToken.START_ARRAY);
+                CityLocation[] location = new CityLocation[1];
+                while (p.nextToken() == JsonToken.START_OBJECT) {
+                    location[0] = null;
+                    WeatherData data = readWeather(null, p, loc -> location[0] = loc);
+                    if (location[0] != null) out.put(location[0].getId(), data);
+                }
+                return out;
+            }
+            throw new IOException("Weather data not available");
+        }
+    }
+
+    public ForecastSeries parseForecast(InputStream in, int maxPoints) throws IOException {
+        try (JsonParser p = factory.createParser(in)) {
+            return readForecast(p, maxPoints);
+        }
+    }
+
+    public ForecastSeries parseForecast(byte[] body, int maxPoints) throws IOException {
+        try (JsonParser p = factory.createParser(body)) {
+            return readForecast(p, maxPoints);
+        }
+    }
+
+    // Reads one weather object; the parser is on its START_OBJECT. A null city takes the API's name.
+    private WeatherData readWeather(String city, JsonParser p, Consumer<CityLocation> onLocation) throws IOException {
+        int cod = 200;
+        String message = null;
+        double temp = Double.NaN, feels = Double.NaN, wind = Double.NaN;
+        int humidity = -1, conditionCode = 0;
+        String condition = null, icon = null;
+        long id = 0, observedAt = 0;
+        String apiName = null;
+        double lat = Double.NaN, lon = Double.NaN;
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "cod" -> cod = p.getValueAsInt(); // a number on /weather, a string on /forecast
+                case "message" -> message = p.getValueAsString();
+                case "id" -> id = p.getValueAsLong();
+                case "dt" -> observedAt = p.getValueAsLong();
+                case "name" -> apiName = p.getValueAsString();
+                case "coord" -> {
+                    expect(value, JsonToken.START_OBJECT);
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String coord = p.currentName();
+                        p.nextToken();
+                        switch (coord) {
+                            case "lat" -> lat = p.getValueAsDouble();
+                            case "lon" -> lon = p.getValueAsDouble();
+                            default -> p.skipChildren();
+                        }
+                    }
+                }
+                case "main" -> {
+                    expect(value, JsonToken.START_OBJECT);
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = p.currentName();
+                        p.nextToken();
+                        switch (name) {
+                            case "temp" -> temp = p.getValueAsDouble();
+                            case "feels_like" -> feels = p.getValueAsDouble();
+                            case "humidity" -> humidity = p.getValueAsInt();
+                            default -> p.skipChildren();
+                        }
+                    }
+                }
+                case "wind" -> wind = readWindSpeed(p, value);
+                case "weather" -> {
+                    expect(value, JsonToken.START_ARRAY);
+                    // Only the first condition is shown; the rest of the array is skipped
+                    if (p.nextToken() == JsonToken.START_OBJECT) {
+                        while (p.nextToken() == JsonToken.FIELD_NAME) {
+                            String name = p.currentName();
+                            p.nextToken();
+                            switch (name) {
+                                case "id" -> conditionCode = p.getValueAsInt();
+                                case "description" -> condition = p.getValueAsString();
+                                case "icon" -> icon = p.getValueAsString();
+                                default -> p.skipChildren();
+                            }
+                        }
+                        while (p.nextToken() != JsonToken.END_ARRAY) p.skipChildren();
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+
+        if (cod != 200) {
+            throw new IOException("API error: " + (message != null ? message : "Unknown API error"));
+        }
+        if (Double.isNaN(temp) || condition == null) {
+            throw new IOException("Weather data not available");
+        }
+        if (onLocation != null && id > 0) onLocation.accept(new CityLocation(id, apiName, lat, lon));
+        // Condition and icon come from small vocabularies; share one instance of each across results
+        return new WeatherData(city != null ? city : apiName, temp, feels, humidity, wind,
+                Codes.intern(condition), Codes.intern(icon), observedAt, conditionCode);
+    }
+
+    private ForecastSeries readForecast(JsonParser p, int maxPoints) throws IOException {
+        expect(p.nextToken(), JsonToken.START_OBJECT);
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if (!"list".equals(field)) {
+                p.skipChildren();
+                continue;
+            }
+            expect(value, JsonToken.START_ARRAY);
+            ForecastSeries.Builder out = new ForecastSeries.Builder(Math.max(0, Math.min(maxPoints, 40)));
+            // Stop at maxPoints: the rest of the body is never tokenized and the stream is closed
+            while (out.size() < maxPoints && p.nextToken() == JsonToken.START_OBJECT) {
+                readForecastEntry(p, out);
+            }
+            return out.build();
+        }
+        throw new IOException("Forecast data not available");
+    }
+
+    private void readForecastEntry(JsonParser p, ForecastSeries.Builder out) throws IOException {
+        long epoch = 0;
+        double temp = Double.NaN, wind = Double.NaN;
+        String cond = null, icon = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "dt" -> epoch = p.getValueAsLong();
+                case "main" -> {
+                    expect(value, JsonToken.START_OBJECT);
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = p.currentName();
+                        p.nextToken();
+                        if ("temp".equals(name)) temp = p.getValueAsDouble();
+                        else p.skipChildren();
+                    }
+                }
+                case "wind" -> wind = readWindSpeed(p, value);
+                case "weather" -> {
+                    expect(value, JsonToken.START_ARRAY);
+                    if (p.nextToken() == JsonToken.START_OBJECT) {
+                        while (p.nextToken() == JsonToken.FIELD_NAME) {
+                            String name = p.currentName();
+                            p.nextToken();
+                            switch (name) {
+                                case "main" -> cond = p.getValueAsString();
+                                case "icon" -> icon = p.getValueAsString();
+                                default -> p.skipChildren();
+                            }
+                        }
+                        while (p.nextToken() != JsonToken.END_ARRAY) p.skipChildren();
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+        out.add(epoch, temp, wind, cond, icon);
+    }
+
+    private double readWindSpeed(JsonParser p, JsonToken value) throws IOException {
+        expect(value, JsonToken.START_OBJECT);
+        double speed = Double.NaN;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            if ("speed".equals(name)) speed = p.getValueAsDouble(); // m/s
+            else p.skipChildren();
+        }
+        return speed;
+    }
+
+    private void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected response format: expected " + expected + " but got " + actual);
+        }
+    }
+}
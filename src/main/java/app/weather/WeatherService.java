@@ -1,93 +1,351 @@
 package app.weather;
 
+import app.weather.model.CityLocation;
 import app.weather.model.ForecastEntry;
 import app.weather.model.WeatherData;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import app.weather.model.WeatherSnapshot;
 
+import java.io.File;
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.StringJoiner;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class WeatherService {
+    public static final String DEFAULT_BASE_URL = "https://api.openweathermap.org";
+    // Most city ids the /group endpoint accepts in one call
+    public static final int GROUP_MAX = 20;
 
-    private final HttpClient http = HttpClient.newHttpClient();
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final WeatherJsonParser parser = new WeatherJsonParser();
     private final String apiKey;
-    private final String unitsCurrentMetric = "metric";
-    private final String unitsCurrentImperial = "imperial";
+    private final String baseUrl;
+    // Always request metric: models hold °C and m/s and the UI converts for display
+    private final String units = "metric";
+
+    // Responses are cached per (endpoint, normalized city) for CACHE_TTL_SECONDS
+    private final ResponseCache<String, WeatherData> weatherCache;
+    private final ResponseCache<String, List<ForecastEntry>> forecastCache;
+    // Timeouts, retries, gzip and rate limiting; cache hits never reach it
+    private final HttpTransport transport;
+    // Fails calls fast while the API is down or over quota
+    private final CircuitBreaker breaker;
+    // Names resolved to ids by their first lookup; later requests go by id
+    private final CityIndex cities;
+    // Every freshly downloaded observation, for history and trends; cached and 304 answers are not new
+    private final ObservationStore observations;
+    // Validators of the last response per cache key; a 304 answer reuses its value without parsing
+    private final Map<String, Validated> validated;
+    private final Metrics metrics = Metrics.shared();
 
     public WeatherService() {
-        Properties props = Config.load();
+        this(Config.load());
+    }
+
+    // Settings come from config.properties; tools such as the load driver pass their own
+    public WeatherService(Properties props) {
         apiKey = props.getProperty("OPENWEATHER_API_KEY", "").trim();
+        baseUrl = stripTrailingSlash(props.getProperty("OPENWEATHER_BASE_URL", DEFAULT_BASE_URL).trim());
+        long ttlMillis = Config.getLong(props, "CACHE_TTL_SECONDS", 300) * 1000;
+        int maxEntries = Config.getInt(props, "CACHE_MAX_ENTRIES", 64);
+        weatherCache = new ResponseCache<>(ttlMillis, maxEntries);
+        forecastCache = new ResponseCache<>(ttlMillis, maxEntries);
+        transport = new HttpTransport(props);
+        breaker = new CircuitBreaker(
+                Config.getInt(props, "BREAKER_FAILURE_PERCENT", 50) / 100.0,
+                Config.getInt(props, "BREAKER_SLOW_CALL_PERCENT", 80) / 100.0,
+                Config.getLong(props, "BREAKER_SLOW_CALL_MS", 5000),
+                Config.getLong(props, "BREAKER_OPEN_SECONDS", 30) * 1000);
+        String indexFile = props.getProperty("CITY_INDEX_FILE",
+                new File(System.getProperty("user.home"), ".weather_app_cities.bin").getPath()).trim();
+        cities = new CityIndex(indexFile.isEmpty() ? null : new File(indexFile), Config.getInt(props, "CITY_INDEX_MAX_ENTRIES", 5000));
+        observations = ObservationStore.fromConfig(props);
+        int maxValidated = Math.max(1, maxEntries) * 4;
+        validated = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Validated> eldest) {
+                return size() > maxValidated;
+            }
+        });
+        metrics.watchCaches(weatherCache, forecastCache);
+        metrics.watchBreaker(breaker);
     }
 
-    public WeatherData fetchWeather(String city, boolean metric) throws Exception {
-        if (apiKey.isEmpty()) {
-            throw new IllegalStateException("Missing API key. Set OPENWEATHER_API_KEY in src/main/resources/app/weather/config.properties");
+    private static final class Validated {
+        final Object value;
+        final String etag;
+        final String lastModified;
+
+        Validated(Object value, String etag, String lastModified) {
+            this.value = value;
+            this.etag = etag;
+            this.lastModified = lastModified;
         }
-        String units = metric ? unitsCurrentMetric : unitsCurrentImperial;
-        String url = String.format("https://api.openweathermap.org/data/2.5/weather?q=%s&appid=%s&units=%s",
-                encode(city), apiKey, units);
-
-        JsonNode json = getJson(url);
-        if (json.has("cod") && json.get("cod").asInt() != 200) {
-            String msg = json.has("message") ? json.get("message").asText() : "Unknown API error";
-            throw new IOException("API error: " + msg);
+    }
+
+    public WeatherData fetchWeather(String city) throws Exception {
+        String key = cacheKey("weather", city);
+        return weatherCache.get(key,
+                () -> load(weatherUrl(city), key, metrics.weather, in -> readWeather(city, in)));
+    }
+
+    public List<ForecastEntry> fetchForecast(String city, int points) throws Exception {
+        // Parsing stops after `points` entries, so the point count is part of the cache key
+        String key = cacheKey("forecast", city) + "|" + points;
+        return forecastCache.get(key, () -> load(forecastUrl(city), key, metrics.forecast, in -> parser.parseForecast(in, points)));
+    }
+
+    // Non-blocking variants built on HttpClient.sendAsync; they share the cache and in-flight calls with the blocking ones
+    public CompletableFuture<WeatherData> fetchWeatherAsync(String city) {
+        String key = cacheKey("weather", city);
+        return weatherCache.getAsync(key,
+                () -> loadAsync(weatherUrl(city), key, metrics.weather, in -> readWeather(city, in)));
+    }
+
+    public CompletableFuture<List<ForecastEntry>> fetchForecastAsync(String city, int points) {
+        String key = cacheKey("forecast", city) + "|" + points;
+        return forecastCache.getAsync(key, () -> loadAsync(forecastUrl(city), key, metrics.forecast, in -> parser.parseForecast(in, points)));
+    }
+
+    /** Like fetchWeatherAsync but skips the response cache; the request is conditional when validators are known. */
+    public CompletableFuture<WeatherData> refreshWeatherAsync(String city) {
+        weatherCache.invalidate(cacheKey("weather", city));
+        return fetchWeatherAsync(city);
+    }
+
+    // Issues the current and forecast requests at once; completes when the slower of the two does
+    public CompletableFuture<WeatherSnapshot> fetchAllAsync(String city, int points) {
+        return fetchWeatherAsync(city).thenCombine(fetchForecastAsync(city, points),
+                (current, forecast) -> new WeatherSnapshot(city, current, forecast));
+    }
+
+    /**
+     * Splits cities into {@link #fetchWeatherGroupAsync} batches of at most {@link #GROUP_MAX}.
+     * Only cities with a known id and no fresh cached weather are included; the rest are left
+     * to {@link #fetchWeatherAsync}, which resolves new names on the way.
+     */
+    public List<List<String>> planGroups(List<String> names) {
+        Map<Long, String> byId = new LinkedHashMap<>();
+        for (String city : names) {
+            CityLocation loc = cities.get(city);
+            if (loc != null && !weatherCache.containsFresh(cacheKey("weather", city))) byId.putIfAbsent(loc.getId(), city);
+        }
+        List<String> resolved = new ArrayList<>(byId.values());
+        List<List<String>> groups = new ArrayList<>();
+        for (int i = 0; i < resolved.size(); i += GROUP_MAX) {
+            groups.add(resolved.subList(i, Math.min(i + GROUP_MAX, resolved.size())));
         }
+        return groups;
+    }
 
-        double temp = json.get("main").get("temp").asDouble();
-        double feels = json.get("main").get("feels_like").asDouble();
-        int humidity = json.get("main").get("humidity").asInt();
-        double windSpeed = json.get("wind").get("speed").asDouble(); // m/s (metric) or mph (imperial)
-        String condition = json.get("weather").get(0).get("description").asText();
-        String icon = json.get("weather").get(0).get("icon").asText();
+    /**
+     * Current conditions for up to {@link #GROUP_MAX} resolved cities in one API call, keyed by
+     * the names passed in. Cities without a known id, or missing from the response, are absent
+     * from the result. Results are cached per city as {@link #fetchWeather} would. More cities than
+     * that fail the future with an IllegalArgumentException.
+     */
+    public CompletableFuture<Map<String, WeatherData>> fetchWeatherGroupAsync(List<String> names) {
+        Map<Long, String> byId = new LinkedHashMap<>();
+        for (String city : names) {
+            CityLocation loc = cities.get(city);
+            if (loc != null) byId.putIfAbsent(loc.getId(), city);
+        }
+        if (byId.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+        if (byId.size() > GROUP_MAX) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("At most " + GROUP_MAX + " cities per group call"));
+        }
+        String url;
+        try {
+            url = groupUrl(byId.keySet());
+        } catch (IllegalStateException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        return loadAsync(url, null, metrics.weather, parser::parseGroup).thenApply(found -> {
+            Map<String, WeatherData> out = new LinkedHashMap<>();
+            byId.forEach((id, city) -> {
+                WeatherData d = found.get(id);
+                if (d == null) return;
+                // Keep the caller's name for the city, as the single-city calls do
+                WeatherData named = new WeatherData(city, d.getTemperature(), d.getFeelsLike(), d.getHumidity(),
+                        d.getWind(), d.getCondition(), d.getIcon(), d.getObservedAt(), d.getConditionCode());
+                weatherCache.put(cacheKey("weather", city), named);
+                observations.append(id, named);
+                out.put(city, named);
+            });
+            return out;
+        });
+    }
+
+    public CityIndex getCityIndex() { return cities; }
+    public ObservationStore getObservations() { return observations; }
+    public ResponseCache<String, WeatherData> getWeatherCache() { return weatherCache; }
+    public ResponseCache<String, List<ForecastEntry>> getForecastCache() { return forecastCache; }
+    public CircuitBreaker getBreaker() { return breaker; }
+
+    // Runs only on a downloaded body: resolves the name to its id and records the observation
+    private WeatherData readWeather(String city, InputStream in) throws IOException {
+        CityLocation[] found = new CityLocation[1];
+        WeatherData data = parser.parseWeather(city, in, loc -> {
+            cities.put(city, loc);
+            found[0] = loc;
+        });
+        if (found[0] != null) observations.append(found[0].getId(), data);
+        return data;
+    }
+
+    private String weatherUrl(String city) {
+        requireApiKey();
+        return String.format("%s/data/2.5/weather?%s&appid=%s&units=%s",
+                baseUrl, locationQuery(city), apiKey, units);
+    }
 
-        double windDisplay = metric ? windSpeed * 3.6 : windSpeed; // m/s -> km/h
+    private String forecastUrl(String city) {
+        requireApiKey();
+        return String.format("%s/data/2.5/forecast?%s&appid=%s&units=%s",
+                baseUrl, locationQuery(city), apiKey, units);
+    }
+
+    private String groupUrl(Iterable<Long> ids) {
+        requireApiKey();
+        StringJoiner list = new StringJoiner(",");
+        for (long id : ids) list.add(Long.toString(id));
+        return String.format("%s/data/2.5/group?id=%s&appid=%s&units=%s",
+                baseUrl, list, apiKey, units);
+    }
 
-        return new WeatherData(city, temp, feels, humidity, windDisplay, condition, icon);
+    // By id once the name has been resolved, so the API skips geocoding it again
+    private String locationQuery(String city) {
+        CityLocation loc = cities.get(city);
+        // "Springfield, IL, US" as suggested by autocomplete goes out as the API's "Springfield,IL,US"
+        return loc != null ? "id=" + loc.getId() : "q=" + encode(city.trim().replaceAll("\\s*,\\s*", ","));
     }
 
-    public List<ForecastEntry> fetchForecast(String city, boolean metric, int points) throws Exception {
+    private void requireApiKey() {
         if (apiKey.isEmpty()) {
             throw new IllegalStateException("Missing API key. Set OPENWEATHER_API_KEY in src/main/resources/app/weather/config.properties");
         }
-        String units = metric ? unitsCurrentMetric : unitsCurrentImperial;
-        String url = String.format("https://api.openweathermap.org/data/2.5/forecast?q=%s&appid=%s&units=%s",
-                encode(city), apiKey, units);
+    }
+
+    private interface StreamReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+
+    // Times the call from send to decoded model, retries included but rate-limiter waits excluded, so neither
+    // the latency timers nor the breaker's slow-call check count our own pacing; interrupted (superseded) calls
+    // are not errors. A non-null key makes the request conditional on the validators of the last response for that key.
+    private <T> T load(String url, String key, Metrics.Timer timer, StreamReader<T> reader) throws Exception {
+        breaker.acquire();
+        long start = System.nanoTime();
+        HttpTransport.Throttle throttle = new HttpTransport.Throttle();
+        Validated last = key != null ? validated.get(key) : null;
+        try {
+            HttpTransport.Response resp = transport.get(url, last != null ? last.etag : null, last != null ? last.lastModified : null, throttle);
+            T value = read(resp, last, key, reader);
+            long elapsed = throttle.elapsedSince(start);
+            timer.recordNanos(elapsed);
+            breaker.onSuccess(elapsed);
+            return value;
+        } catch (Exception ex) {
+            if (ex instanceof InterruptedException || Thread.currentThread().isInterrupted()) {
+                breaker.onCancelled();
+            } else {
+                timer.error();
+                recordFailure(ex, throttle.elapsedSince(start));
+            }
+            throw ex;
+        }
+    }
 
-        JsonNode json = getJson(url);
-        if (!json.has("list")) {
-            throw new IOException("Forecast data not available");
+    private <T> CompletableFuture<T> loadAsync(String url, String key, Metrics.Timer timer, StreamReader<T> reader) {
+        try {
+            breaker.acquire();
+        } catch (CircuitOpenException ex) {
+            return CompletableFuture.failedFuture(ex);
         }
+        long start = System.nanoTime();
+        HttpTransport.Throttle throttle = new HttpTransport.Throttle();
+        Validated last = key != null ? validated.get(key) : null;
+        CompletableFuture<HttpTransport.Response> sent;
+        try {
+            sent = transport.getAsync(url, last != null ? last.etag : null, last != null ? last.lastModified : null, throttle);
+        } catch (RuntimeException ex) {
+            // e.g. a malformed base URL; settle the call so a half-open probe permit is not leaked
+            timer.error();
+            recordFailure(ex, throttle.elapsedSince(start));
+            return CompletableFuture.failedFuture(ex);
+        }
+        return sent.thenApply(resp -> {
+            try {
+                T value = read(resp, last, key, reader);
+                timer.recordNanos(throttle.elapsedSince(start));
+                return value;
+            } catch (IOException ex) {
+                throw new CompletionException(ex);
+            }
+        }).whenComplete((value, err) -> {
+            if (err == null) {
+                breaker.onSuccess(throttle.elapsedSince(start));
+            } else if (err instanceof CancellationException) {
+                breaker.onCancelled();
+            } else {
+                timer.error();
+                recordFailure(err instanceof CompletionException && err.getCause() != null ? err.getCause() : err,
+                        throttle.elapsedSince(start));
+            }
+        });
+    }
 
-        List<ForecastEntry> out = new ArrayList<>();
-        for (int i = 0; i < json.get("list").size() && i < points; i++) {
-            JsonNode node = json.get("list").get(i);
-            long epoch = node.get("dt").asLong();
-            double temp = node.get("main").get("temp").asDouble();
-            double windSpeed = node.get("wind").get("speed").asDouble();
-            String cond = node.get("weather").get(0).get("main").asText();
-            String icon = node.get("weather").get(0).get("icon").asText();
-            double windDisplay = metric ? windSpeed * 3.6 : windSpeed;
-            out.add(new ForecastEntry(epoch, temp, windDisplay, cond, icon));
+    // 304: the previous value is still current and nothing is parsed. Otherwise parse and remember the validators.
+    @SuppressWarnings("unchecked")
+    private <T> T read(HttpTransport.Response resp, Validated last, String key, StreamReader<T> reader) throws IOException {
+        if (resp.isNotModified()) {
+            if (last == null) throw new IOException("Unexpected 304 response to an unconditional request");
+            metrics.notModified.incrementAndGet();
+            return (T) last.value;
+        }
+        try (InputStream in = resp.getBody()) {
+            long decodeStart = System.nanoTime();
+            T value = reader.read(in);
+            metrics.decode.record(decodeStart);
+            if (key != null && (resp.getEtag() != null || resp.getLastModified() != null)) {
+                validated.put(key, new Validated(value, resp.getEtag(), resp.getLastModified()));
+            }
+            return value;
         }
-        return out;
     }
 
-    private JsonNode getJson(String url) throws Exception {
-        HttpRequest req = HttpRequest.newBuilder(URI.create(url)).GET().build();
-        HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString());
-        if (resp.statusCode() >= 400) throw new IOException("HTTP error " + resp.statusCode());
-        return mapper.readTree(resp.body());
+    // Bad requests (unknown city, wrong key) reached a healthy API; only count real upstream trouble
+    private void recordFailure(Throwable error, long elapsed) {
+        if (error instanceof HttpStatusException http && http.isClientError()) breaker.onSuccess(elapsed);
+        else breaker.onFailure(elapsed);
+    }
+
+    private static String cacheKey(String endpoint, String city) {
+        return endpoint + "|" + normalize(city);
+    }
+
+    /** The form cities are keyed by: trimmed, single-spaced, lower case. */
+    public static String normalize(String city) {
+        return city.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String stripTrailingSlash(String url) {
+        if (url.isEmpty()) return DEFAULT_BASE_URL;
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
     }
 
-    private String encode(String s) {
-        return s.replace(" ", "%20");
+    // Full percent-encoding, so names like "São Paulo" or "St. John's" survive; %20 rather than + for spaces
+    private static String encode(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8).replace("+", "%20");
     }
 }
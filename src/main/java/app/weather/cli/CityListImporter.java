@@ -0,0 +1,65 @@
+package app.weather.cli;
+
+import app.weather.CityNameIndex;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Builds the autocomplete index from OpenWeather's city list
+ * (https://bulk.openweathermap.org/sample/city.list.json.gz, about 200k cities).
+ * Each city becomes "Name, CC", or "Name, ST, CC" when the list gives a state,
+ * which is also the form the API accepts in {@code q=}.
+ *
+ * <pre>java -p target/classes:target/lib -m weather.info.app/app.weather.cli.CityListImporter city.list.json.gz cities.idx</pre>
+ */
+public final class CityListImporter {
+    private CityListImporter() { }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CityListImporter <city.list.json[.gz]> <output.idx>");
+            System.exit(2);
+        }
+        List<String> names = read(Path.of(args[0]));
+        CityNameIndex.write(names, Path.of(args[1]));
+        System.err.printf("Wrote %s (%d cities read, %d bytes)%n", args[1], names.size(), Files.size(Path.of(args[1])));
+    }
+
+    static List<String> read(Path source) throws IOException {
+        List<String> names = new ArrayList<>(210_000);
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(source));
+             InputStream in = source.toString().endsWith(".gz") ? new GZIPInputStream(raw, 65536) : raw;
+             JsonParser p = new JsonFactory().createParser(in)) {
+            if (p.nextToken() != JsonToken.START_ARRAY) throw new IOException("Expected a JSON array of cities");
+            while (p.nextToken() == JsonToken.START_OBJECT) {
+                String name = null, state = null, country = null;
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    p.nextToken();
+                    switch (field) {
+                        case "name" -> name = p.getValueAsString();
+                        case "state" -> state = p.getValueAsString();
+                        case "country" -> country = p.getValueAsString();
+                        default -> p.skipChildren();
+                    }
+                }
+                if (name == null || name.isBlank()) continue;
+                StringBuilder display = new StringBuilder(name.trim());
+                if (state != null && !state.isBlank()) display.append(", ").append(state.trim());
+                if (country != null && !country.isBlank()) display.append(", ").append(country.trim());
+                names.add(display.toString());
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,166 @@
+package app.weather.cli;
+
+import app.weather.BatchFetcher;
+import app.weather.WeatherService;
+import app.weather.model.ForecastEntry;
+import app.weather.model.WeatherData;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static app.weather.CliArgs.readCities;
+import static app.weather.CliArgs.value;
+
+/**
+ * Headless entry point for scripts and cron jobs: fetches a list of cities concurrently and
+ * writes CSV or NDJSON to stdout. Only uses JavaFX-free classes, so the toolkit is never loaded.
+ *
+ * <pre>
+ * WeatherCli [--format csv|ndjson] [--forecast N] [--concurrency N] [--file cities.txt|-] [city ...]
+ * </pre>
+ * Values are canonical (°C, m/s). Rows are written as each city completes; failures go to
+ * stderr and make the exit status 1.
+ */
+public final class WeatherCli {
+    private static final String USAGE =
+            "Usage: WeatherCli [--format csv|ndjson] [--forecast N] [--concurrency N] [--file cities.txt|-] [--stats] [city ...]";
+
+    private final Writer out;
+    private final boolean ndjson;
+    private final JsonGenerator json;
+
+    private WeatherCli(Writer out, boolean ndjson) throws IOException {
+        this.out = out;
+        this.ndjson = ndjson;
+        // Each line is flushed into `out` only; stdout is flushed once at the end
+        this.json = ndjson ? new JsonFactory().createGenerator(out).setRootValueSeparator(null)
+                .configure(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM, false) : null;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        String format = "csv";
+        int points = 0;
+        int concurrency = 8;
+        boolean stats = false;
+        List<String> cities = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--format" -> format = value(args, ++i);
+                    case "--forecast" -> points = Integer.parseInt(value(args, ++i));
+                    case "--concurrency" -> concurrency = Integer.parseInt(value(args, ++i));
+                    case "--file" -> cities.addAll(readCities(value(args, ++i)));
+                    case "--stats" -> stats = true;
+                    case "-h", "--help" -> {
+                        System.out.println(USAGE);
+                        return 0;
+                    }
+                    default -> {
+                        if (args[i].startsWith("--")) throw new IllegalArgumentException("Unknown option " + args[i]);
+                        cities.add(args[i]);
+                    }
+                }
+            }
+            if (!format.equals("csv") && !format.equals("ndjson")) throw new IllegalArgumentException("Unknown format " + format);
+            if (cities.isEmpty()) throw new IllegalArgumentException("No cities given");
+            if (concurrency <= 0) throw new IllegalArgumentException("--concurrency must be positive");
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            Writer w = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            WeatherCli cli = new WeatherCli(w, format.equals("ndjson"));
+            cli.writeHeader();
+            WeatherService service = new WeatherService();
+            BatchFetcher.BatchReport report = new BatchFetcher(service, concurrency)
+                    .fetchAll(cities, Math.min(points, 40), cli::write);
+            w.flush();
+            service.getCityIndex().flush(); // newly resolved city ids, before the JVM exits
+            service.getObservations().flush();
+            if (stats) System.err.println(report);
+            return report.getFailed() == 0 ? 0 : 1;
+        } catch (IOException | InterruptedException ex) {
+            System.err.println(ex.getMessage());
+            return 1;
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        if (!ndjson) out.write("kind,city,time,temp_c,feels_like_c,humidity,wind_mps,condition\n");
+    }
+
+    // Called from HTTP client threads as results arrive
+    private synchronized void write(BatchFetcher.CityResult r) {
+        if (!r.isSuccess()) {
+            System.err.println(r.getCity() + ": " + r.getError().getMessage());
+            return;
+        }
+        try {
+            if (ndjson) writeJson(r); else writeCsv(r);
+        } catch (IOException ex) {
+            System.err.println(r.getCity() + ": " + ex.getMessage());
+        }
+    }
+
+    private void writeCsv(BatchFetcher.CityResult r) throws IOException {
+        WeatherData d = r.getSnapshot().getCurrent();
+        String city = csv(r.getCity());
+        out.write("current," + city + "," + Instant.now().getEpochSecond() + "," + d.getTemperature() + ","
+                + d.getFeelsLike() + "," + d.getHumidity() + "," + d.getWind() + "," + csv(d.getCondition()) + "\n");
+        for (ForecastEntry f : r.getSnapshot().getForecast()) {
+            // Forecast points are stored as floats; print them as such to avoid widening noise
+            out.write("forecast," + city + "," + f.getEpoch() + "," + (float) f.getTemp() + ",,," + (float) f.getWind() + ","
+                    + csv(f.getCondition()) + "\n");
+        }
+    }
+
+    private void writeJson(BatchFetcher.CityResult r) throws IOException {
+        WeatherData d = r.getSnapshot().getCurrent();
+        json.writeStartObject();
+        json.writeStringField("city", r.getCity());
+        json.writeNumberField("time", Instant.now().getEpochSecond());
+        json.writeNumberField("temp_c", d.getTemperature());
+        json.writeNumberField("feels_like_c", d.getFeelsLike());
+        json.writeNumberField("humidity", d.getHumidity());
+        json.writeNumberField("wind_mps", d.getWind());
+        json.writeStringField("condition", d.getCondition());
+        json.writeStringField("icon", d.getIcon());
+        List<ForecastEntry> forecast = r.getSnapshot().getForecast();
+        if (!forecast.isEmpty()) {
+            json.writeArrayFieldStart("forecast");
+            for (ForecastEntry f : forecast) {
+                json.writeStartObject();
+                json.writeNumberField("time", f.getEpoch());
+                json.writeNumberField("temp_c", (float) f.getTemp());
+                json.writeNumberField("wind_mps", (float) f.getWind());
+                json.writeStringField("condition", f.getCondition());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+        json.writeEndObject();
+        json.flush();
+        out.write('\n');
+    }
+
+    private static String csv(String s) {
+        if (s == null) return "";
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+}
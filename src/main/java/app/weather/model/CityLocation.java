@@ -0,0 +1,21 @@
+package app.weather.model;
+
+// OpenWeather's identity for a searched city name: its numeric id and coordinates
+public class CityLocation {
+    private final long id;
+    private final String name;
+    private final double lat;
+    private final double lon;
+
+    public CityLocation(long id, String name, double lat, double lon) {
+        this.id = id;
+        this.name = name;
+        this.lat = lat;
+        this.lon = lon;
+    }
+
+    public long getId() { return id; }
+    public String getName() { return name; }
+    public double getLat() { return lat; }
+    public double getLon() { return lon; }
+}
@@ -0,0 +1,47 @@
+package app.weather.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide intern table for the small vocabularies in API responses (condition names such as
+ * "Clouds", icon codes such as "04d"). Each distinct string is stored once and given a short code.
+ */
+public final class Codes {
+    private static final Map<String, Short> CODES = new ConcurrentHashMap<>();
+    // Copy-on-write so lookups by code never lock; writes only happen for unseen strings
+    private static volatile String[] values = new String[0];
+
+    public static final short NONE = -1;
+
+    private Codes() { }
+
+    public static short code(String value) {
+        if (value == null) return NONE;
+        Short code = CODES.get(value);
+        if (code != null) return code;
+        synchronized (CODES) {
+            code = CODES.get(value);
+            if (code == null) {
+                String[] current = values;
+                if (current.length >= Short.MAX_VALUE) throw new IllegalStateException("Too many distinct codes");
+                code = (short) current.length;
+                String[] next = Arrays.copyOf(current, current.length + 1);
+                next[code] = value;
+                values = next;
+                CODES.put(value, code);
+            }
+            return code;
+        }
+    }
+
+    public static String value(short code) {
+        return code == NONE ? null : values[code];
+    }
+
+    /** Canonical instance of {@code value}, so repeated strings share one object. */
+    public static String intern(String value) {
+        return value(code(value));
+    }
+}
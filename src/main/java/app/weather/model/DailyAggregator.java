@@ -0,0 +1,58 @@
+package app.weather.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Folds time-ordered forecast points into per-day min/max, one point at a time. Only a
+ * day change costs a date computation; every other point is two comparisons.
+ */
+public class DailyAggregator {
+    private final ZoneId zone;
+    private final List<DailyRange> days = new ArrayList<>();
+    private LocalDate day;
+    private long dayEnd;
+    private double min;
+    private double max;
+
+    public DailyAggregator(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    public void add(long epoch, double temp) {
+        if (day == null || epoch >= dayEnd) {
+            flush();
+            day = Instant.ofEpochSecond(epoch).atZone(zone).toLocalDate();
+            dayEnd = day.plusDays(1).atStartOfDay(zone).toEpochSecond();
+            min = temp;
+            max = temp;
+        } else {
+            if (temp < min) min = temp;
+            if (temp > max) max = temp;
+        }
+    }
+
+    /** Completed days plus the day in progress. */
+    public List<DailyRange> result() {
+        List<DailyRange> out = new ArrayList<>(days);
+        if (day != null) out.add(new DailyRange(day, min, max));
+        return out;
+    }
+
+    public static List<DailyRange> of(List<ForecastEntry> forecast, ZoneId zone) {
+        DailyAggregator agg = new DailyAggregator(zone);
+        if (forecast instanceof ForecastSeries series) {
+            for (int i = 0; i < series.size(); i++) agg.add(series.epochAt(i), series.tempAt(i));
+        } else {
+            for (ForecastEntry e : forecast) agg.add(e.getEpoch(), e.getTemp());
+        }
+        return agg.result();
+    }
+
+    private void flush() {
+        if (day != null) days.add(new DailyRange(day, min, max));
+    }
+}
@@ -0,0 +1,20 @@
+package app.weather.model;
+
+import java.time.LocalDate;
+
+// Lowest and highest forecast temperature (°C) for one local calendar day
+public class DailyRange {
+    private final LocalDate date;
+    private final double min;
+    private final double max;
+
+    public DailyRange(LocalDate date, double min, double max) {
+        this.date = date;
+        this.min = min;
+        this.max = max;
+    }
+
+    public LocalDate getDate() { return date; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+}
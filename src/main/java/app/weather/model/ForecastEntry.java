@@ -3,6 +3,7 @@ package app.weather.model;
 import java.util.ArrayList;
 import java.util.List;
 
+// temp in °C, wind in m/s; see Units for display conversion
 public class ForecastEntry {
     private final long epoch;
     private final double temp;
@@ -28,7 +29,7 @@ public class ForecastEntry {
         long now = System.currentTimeMillis() / 1000;
         List<ForecastEntry> list = new ArrayList<>();
         for (int i = 1; i <= 8; i++) {
-            list.add(new ForecastEntry(now + i * 3 * 3600L, 24 + Math.sin(i)*2, 10 + i, i % 2 == 0 ? "Clouds" : "Clear", i % 2 == 0 ? "03d" : "01d"));
+            list.add(new ForecastEntry(now + i * 3 * 3600L, 24 + Math.sin(i)*2, (10 + i) / 3.6, i % 2 == 0 ? "Clouds" : "Clear", i % 2 == 0 ? "03d" : "01d"));
         }
         return list;
     }
@@ -0,0 +1,122 @@
+package app.weather.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Forecast points stored column-wise in primitive arrays, with condition and icon kept as
+ * {@link Codes}. Immutable. As a {@code List<ForecastEntry>} it hands out short-lived entry
+ * views, so code written against ForecastEntry getters keeps working; hot paths can read the
+ * columns directly via the {@code ...At(i)} accessors.
+ */
+public final class ForecastSeries extends AbstractList<ForecastEntry> implements RandomAccess {
+    private static final ForecastSeries EMPTY = new ForecastSeries(0, new long[0], new float[0], new float[0], new short[0], new short[0]);
+
+    private final int size;
+    private final long[] epochs;
+    private final float[] temps;
+    private final float[] winds;
+    private final short[] conditions;
+    private final short[] icons;
+
+    private ForecastSeries(int size, long[] epochs, float[] temps, float[] winds, short[] conditions, short[] icons) {
+        this.size = size;
+        this.epochs = epochs;
+        this.temps = temps;
+        this.winds = winds;
+        this.conditions = conditions;
+        this.icons = icons;
+    }
+
+    public static ForecastSeries empty() {
+        return EMPTY;
+    }
+
+    public static ForecastSeries copyOf(List<ForecastEntry> entries) {
+        if (entries instanceof ForecastSeries series) return series;
+        Builder b = new Builder(entries.size());
+        for (ForecastEntry e : entries) b.add(e.getEpoch(), e.getTemp(), e.getWind(), e.getCondition(), e.getIcon());
+        return b.build();
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public ForecastEntry get(int i) {
+        return new ForecastEntry(epochAt(i), tempAt(i), windAt(i), conditionAt(i), iconAt(i));
+    }
+
+    public long epochAt(int i) { return epochs[check(i)]; }
+    public double tempAt(int i) { return temps[check(i)]; }
+    public double windAt(int i) { return winds[check(i)]; }
+    public String conditionAt(int i) { return Codes.value(conditions[check(i)]); }
+    public String iconAt(int i) { return Codes.value(icons[check(i)]); }
+
+    /** First {@code n} points (or all of them if there are fewer). */
+    public ForecastSeries head(int n) {
+        if (n >= size) return this;
+        return new ForecastSeries(n, Arrays.copyOf(epochs, n), Arrays.copyOf(temps, n), Arrays.copyOf(winds, n),
+                Arrays.copyOf(conditions, n), Arrays.copyOf(icons, n));
+    }
+
+    private int check(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + size);
+        return i;
+    }
+
+    /** Collects points column-wise; use once, then call {@link #build}. */
+    public static final class Builder {
+        private boolean built;
+        private int size;
+        private long[] epochs;
+        private float[] temps;
+        private float[] winds;
+        private short[] conditions;
+        private short[] icons;
+
+        public Builder(int expected) {
+            int cap = Math.max(1, expected);
+            epochs = new long[cap];
+            temps = new float[cap];
+            winds = new float[cap];
+            conditions = new short[cap];
+            icons = new short[cap];
+        }
+
+        public Builder add(long epoch, double temp, double wind, String condition, String icon) {
+            if (built) throw new IllegalStateException("Builder already used");
+            if (size == epochs.length) grow();
+            epochs[size] = epoch;
+            temps[size] = (float) temp;
+            winds[size] = (float) wind;
+            conditions[size] = Codes.code(condition);
+            icons[size] = Codes.code(icon);
+            size++;
+            return this;
+        }
+
+        public int size() { return size; }
+
+        public ForecastSeries build() {
+            built = true;
+            if (size == 0) return EMPTY;
+            return new ForecastSeries(size, trim(epochs), trim(temps), trim(winds), trim(conditions), trim(icons));
+        }
+
+        private void grow() {
+            int cap = epochs.length * 2;
+            epochs = Arrays.copyOf(epochs, cap);
+            temps = Arrays.copyOf(temps, cap);
+            winds = Arrays.copyOf(winds, cap);
+            conditions = Arrays.copyOf(conditions, cap);
+            icons = Arrays.copyOf(icons, cap);
+        }
+
+        private long[] trim(long[] a) { return a.length == size ? a : Arrays.copyOf(a, size); }
+        private float[] trim(float[] a) { return a.length == size ? a : Arrays.copyOf(a, size); }
+        private short[] trim(short[] a) { return a.length == size ? a : Arrays.copyOf(a, size); }
+    }
+}
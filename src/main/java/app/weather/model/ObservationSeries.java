@@ -0,0 +1,121 @@
+package app.weather.model;
+
+import java.util.Arrays;
+
+/**
+ * Observed conditions for one city over a time range, stored column-wise and ordered by
+ * observation time. Immutable. Values are canonical (°C, m/s), as in {@link WeatherData}.
+ */
+public final class ObservationSeries {
+    private static final ObservationSeries EMPTY = new ObservationSeries(0, new long[0], new float[0], new float[0],
+            new float[0], new byte[0], new short[0]);
+
+    private final int size;
+    private final long[] epochs;
+    private final float[] temps;
+    private final float[] feelsLikes;
+    private final float[] winds;
+    private final byte[] humidities;
+    private final short[] conditionCodes;
+
+    private ObservationSeries(int size, long[] epochs, float[] temps, float[] feelsLikes, float[] winds,
+                              byte[] humidities, short[] conditionCodes) {
+        this.size = size;
+        this.epochs = epochs;
+        this.temps = temps;
+        this.feelsLikes = feelsLikes;
+        this.winds = winds;
+        this.humidities = humidities;
+        this.conditionCodes = conditionCodes;
+    }
+
+    public static ObservationSeries empty() {
+        return EMPTY;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public long epochAt(int i) { return epochs[check(i)]; }
+    public double tempAt(int i) { return temps[check(i)]; }
+    public double feelsLikeAt(int i) { return feelsLikes[check(i)]; }
+    public double windAt(int i) { return winds[check(i)]; }
+    public int humidityAt(int i) { return humidities[check(i)]; }
+    public int conditionCodeAt(int i) { return conditionCodes[check(i)]; }
+
+    private int check(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + size);
+        return i;
+    }
+
+    /**
+     * Collects observations in any order; {@link #build} sorts them by time and keeps one
+     * observation per timestamp. Use once.
+     */
+    public static final class Builder {
+        private boolean built;
+        private int size;
+        private long[] epochs;
+        private float[] temps;
+        private float[] feelsLikes;
+        private float[] winds;
+        private byte[] humidities;
+        private short[] conditionCodes;
+
+        public Builder(int expected) {
+            int n = Math.max(expected, 8);
+            epochs = new long[n];
+            temps = new float[n];
+            feelsLikes = new float[n];
+            winds = new float[n];
+            humidities = new byte[n];
+            conditionCodes = new short[n];
+        }
+
+        public Builder add(long epoch, float temp, float feelsLike, float wind, int humidity, int conditionCode) {
+            if (built) throw new IllegalStateException("Builder already used");
+            if (size == epochs.length) grow();
+            epochs[size] = epoch;
+            temps[size] = temp;
+            feelsLikes[size] = feelsLike;
+            winds[size] = wind;
+            humidities[size] = (byte) humidity;
+            conditionCodes[size] = (short) conditionCode;
+            size++;
+            return this;
+        }
+
+        public ObservationSeries build() {
+            if (built) throw new IllegalStateException("Builder already used");
+            built = true;
+            if (size == 0) return EMPTY;
+            boolean sorted = true;
+            for (int i = 1; i < size && sorted; i++) sorted = epochs[i - 1] < epochs[i];
+            if (sorted) {
+                return new ObservationSeries(size, epochs, temps, feelsLikes, winds, humidities, conditionCodes);
+            }
+            // Records are appended roughly in time order; sort by index only when they are not
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Long.compare(epochs[a], epochs[b]));
+            Builder out = new Builder(size);
+            long last = Long.MIN_VALUE;
+            for (int i : order) {
+                if (epochs[i] == last) continue; // the same observation fetched twice
+                last = epochs[i];
+                out.add(epochs[i], temps[i], feelsLikes[i], winds[i], humidities[i], conditionCodes[i]);
+            }
+            return out.build();
+        }
+
+        private void grow() {
+            int n = epochs.length * 2;
+            epochs = Arrays.copyOf(epochs, n);
+            temps = Arrays.copyOf(temps, n);
+            feelsLikes = Arrays.copyOf(feelsLikes, n);
+            winds = Arrays.copyOf(winds, n);
+            humidities = Arrays.copyOf(humidities, n);
+            conditionCodes = Arrays.copyOf(conditionCodes, n);
+        }
+    }
+}
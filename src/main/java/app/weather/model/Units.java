@@ -0,0 +1,26 @@
+package app.weather.model;
+
+// Display units. Models always hold canonical values (°C, m/s); conversion happens at render time.
+public enum Units {
+    METRIC("°C", "km/h"),
+    IMPERIAL("°F", "mph");
+
+    private final String temperatureSymbol;
+    private final String windLabel;
+
+    Units(String temperatureSymbol, String windLabel) {
+        this.temperatureSymbol = temperatureSymbol;
+        this.windLabel = windLabel;
+    }
+
+    public double temperature(double celsius) {
+        return this == METRIC ? celsius : celsius * 9.0 / 5.0 + 32.0;
+    }
+
+    public double windSpeed(double metersPerSecond) {
+        return this == METRIC ? metersPerSecond * 3.6 : metersPerSecond * 2.2369362920544;
+    }
+
+    public String getTemperatureSymbol() { return temperatureSymbol; }
+    public String getWindLabel() { return windLabel; }
+}
@@ -1,5 +1,6 @@
 package app.weather.model;
 
+// Temperatures are stored in °C and wind in m/s; see Units for display conversion
 public class WeatherData {
     private final String city;
     private final double temperature;
@@ -8,8 +9,22 @@ public class WeatherData {
     private final double wind;
     private final String condition;
     private final String icon;
+    // Upstream observation time (the API's "dt"), epoch seconds; 0 when unknown
+    private final long observedAt;
+    // OpenWeather condition id (e.g. 500 light rain, 800 clear); 0 when unknown
+    private final int conditionCode;
 
     public WeatherData(String city, double temperature, double feelsLike, int humidity, double wind, String condition, String icon) {
+        this(city, temperature, feelsLike, humidity, wind, condition, icon, 0);
+    }
+
+    public WeatherData(String city, double temperature, double feelsLike, int humidity, double wind, String condition, String icon,
+                       long observedAt) {
+        this(city, temperature, feelsLike, humidity, wind, condition, icon, observedAt, 0);
+    }
+
+    public WeatherData(String city, double temperature, double feelsLike, int humidity, double wind, String condition, String icon,
+                       long observedAt, int conditionCode) {
         this.city = city;
         this.temperature = temperature;
         this.feelsLike = feelsLike;
@@ -17,6 +32,8 @@ public class WeatherData {
         this.wind = wind;
         this.condition = condition;
         this.icon = icon;
+        this.observedAt = observedAt;
+        this.conditionCode = conditionCode;
     }
 
     public String getCity() { return city; }
@@ -26,9 +43,11 @@ public class WeatherData {
     public double getWind() { return wind; }
     public String getCondition() { return condition; }
     public String getIcon() { return icon; }
+    public long getObservedAt() { return observedAt; }
+    public int getConditionCode() { return conditionCode; }
 
     // Demo data when API key is missing or for offline screenshot
     public static WeatherData demo() {
-        return new WeatherData("São Paulo", 26.3, 27.0, 62, 12.4, "broken clouds", "04d");
+        return new WeatherData("São Paulo", 26.3, 27.0, 62, 3.44, "broken clouds", "04d");
     }
 }
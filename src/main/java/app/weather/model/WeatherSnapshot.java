@@ -0,0 +1,20 @@
+package app.weather.model;
+
+import java.util.List;
+
+// Current conditions and forecast for one city, fetched together
+public class WeatherSnapshot {
+    private final String city;
+    private final WeatherData current;
+    private final List<ForecastEntry> forecast;
+
+    public WeatherSnapshot(String city, WeatherData current, List<ForecastEntry> forecast) {
+        this.city = city;
+        this.current = current;
+        this.forecast = forecast;
+    }
+
+    public String getCity() { return city; }
+    public WeatherData getCurrent() { return current; }
+    public List<ForecastEntry> getForecast() { return forecast; }
+}
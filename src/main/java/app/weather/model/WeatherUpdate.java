@@ -0,0 +1,31 @@
+package app.weather.model;
+
+import java.util.List;
+
+// New data for one city: current conditions, forecast or both; a null part is unchanged
+public class WeatherUpdate {
+    private final String city;
+    private final WeatherData current;
+    private final List<ForecastEntry> forecast;
+
+    public WeatherUpdate(String city, WeatherData current, List<ForecastEntry> forecast) {
+        this.city = city;
+        this.current = current;
+        this.forecast = forecast;
+    }
+
+    public static WeatherUpdate of(WeatherSnapshot snapshot) {
+        return new WeatherUpdate(snapshot.getCity(), snapshot.getCurrent(), snapshot.getForecast());
+    }
+
+    public String getCity() { return city; }
+    public WeatherData getCurrent() { return current; }
+    public List<ForecastEntry> getForecast() { return forecast; }
+
+    /** This update with the parts of a newer one laid over it. */
+    public WeatherUpdate merge(WeatherUpdate newer) {
+        return new WeatherUpdate(newer.city,
+                newer.current != null ? newer.current : current,
+                newer.forecast != null ? newer.forecast : forecast);
+    }
+}
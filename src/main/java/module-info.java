@@ -5,12 +5,14 @@ module weather.info.app {
     requires com.fasterxml.jackson.databind;
     requires com.fasterxml.jackson.core;
     requires com.fasterxml.jackson.annotation;
-    requires javafx.swing;
     requires java.net.http;
     requires java.desktop;
+    requires java.management;
 
     opens app.weather to com.fasterxml.jackson.databind;
     opens app.weather.model to com.fasterxml.jackson.databind;
 
     exports app.weather;
+    // Headless CLI; uses no javafx classes, so the toolkit is never initialized in that mode
+    exports app.weather.cli;
 }